@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) 2015 RoboVM AB
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package org.robovm.eclipse.benchmarks;
+
+import java.io.File;
+import java.lang.reflect.InvocationTargetException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.robovm.compiler.config.Config.Home;
+import org.robovm.compiler.log.Logger;
+import org.robovm.eclipse.internal.ib.IBIntegratorHandles;
+
+/**
+ * Compares the per-call cost of dispatching to the Interface Builder
+ * integrator through a {@code getMethod()} lookup and reflective
+ * {@code invoke()} on every call with dispatching through the cached
+ * {@link IBIntegratorHandles} used by {@code IBIntegratorProxy}. The
+ * integrator itself isn't available outside of the commercial build so a
+ * stand-in with the same methods is used.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IBIntegratorDispatchBenchmark {
+
+    private Object instance;
+    private IBIntegratorHandles handles;
+    private File file;
+
+    @Setup
+    public void setup() throws Throwable {
+        handles = new IBIntegratorHandles(FakeIBIntegrator.class);
+        instance = (Object) handles.constructor.invokeExact((Home) null, (Logger) null, "project", new File("."));
+        file = new File("Info.plist");
+    }
+
+    @Benchmark
+    public Object reflective() throws Throwable {
+        try {
+            return FakeIBIntegrator.class.getMethod("newIOSView", String.class, File.class)
+                    .invoke(instance, "View", file);
+        } catch (InvocationTargetException e) {
+            throw e.getCause() != null ? e.getCause() : e;
+        }
+    }
+
+    @Benchmark
+    public File methodHandle() throws Throwable {
+        return (File) handles.newIOSView.invokeExact(instance, "View", file);
+    }
+
+    @Benchmark
+    public void reflectiveVoid() throws Throwable {
+        try {
+            FakeIBIntegrator.class.getMethod("setInfoPlist", File.class).invoke(instance, file);
+        } catch (InvocationTargetException e) {
+            throw e.getCause() != null ? e.getCause() : e;
+        }
+    }
+
+    @Benchmark
+    public void methodHandleVoid() throws Throwable {
+        handles.setInfoPlist.invokeExact(instance, file);
+    }
+
+    /**
+     * Stand-in for {@code com.robovm.ibintegrator.IBIntegrator}.
+     */
+    public static class FakeIBIntegrator {
+        private File infoPlist;
+
+        public FakeIBIntegrator(Home home, Logger logger, String projectName, File target) {
+        }
+
+        public void setInfoPlist(File file) {
+            this.infoPlist = file;
+        }
+
+        public void setResourceFolders(Set<File> resourceFolders) {
+        }
+
+        public void setClasspath(List<File> classpath) {
+        }
+
+        public void setSourceFolders(Set<File> sourceFolders) {
+        }
+
+        public File newIOSStoryboard(String name, File path) {
+            return path;
+        }
+
+        public File newIOSView(String name, File path) {
+            return path;
+        }
+
+        public File newIOSViewController(String name, File path) {
+            return path;
+        }
+
+        public void openProject() {
+        }
+
+        public void openProjectFile(String file) {
+        }
+
+        public void start() {
+        }
+
+        public void shutDown() {
+        }
+    }
+}
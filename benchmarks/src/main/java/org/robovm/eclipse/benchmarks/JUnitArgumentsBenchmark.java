@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2015 RoboVM AB
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package org.robovm.eclipse.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.robovm.eclipse.internal.junit.JUnitArguments;
+
+/**
+ * Benchmarks the processing of RemoteTestRunner arguments done by
+ * {@code AbstractJUnitLaunchConfigurationDelegate} on every JUnit launch.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JUnitArgumentsBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int testClasses;
+
+    private String[] classNamesArgs;
+    private String[] testNameFileArgs;
+    private File testNameFile;
+
+    @Setup
+    public void setup() throws IOException {
+        List<String> classes = new ArrayList<>();
+        for (int i = 0; i < testClasses; i++) {
+            classes.add("com.example.package" + (i % 50) + ".SomeTest" + i);
+        }
+
+        List<String> args = new ArrayList<>();
+        args.add("-version");
+        args.add("3");
+        args.add("-port");
+        args.add("12345");
+        args.add("-classNames");
+        args.addAll(classes);
+        classNamesArgs = args.toArray(new String[args.size()]);
+
+        testNameFile = File.createTempFile("testnames", ".txt");
+        FileUtils.writeLines(testNameFile, classes);
+        testNameFileArgs = new String[] {"-version", "3", "-port", "12345", "-testNameFile",
+                testNameFile.getAbsolutePath()};
+    }
+
+    @TearDown
+    public void tearDown() {
+        testNameFile.delete();
+    }
+
+    @Benchmark
+    public JUnitArguments classNames() throws IOException {
+        return JUnitArguments.process(classNamesArgs);
+    }
+
+    @Benchmark
+    public JUnitArguments testNameFile() throws IOException {
+        return JUnitArguments.process(testNameFileArgs);
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2015 RoboVM AB
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package org.robovm.eclipse.benchmarks;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.robovm.eclipse.internal.LaunchArguments;
+
+/**
+ * Benchmarks the argument and environment handling done by
+ * {@code AbstractLaunchConfigurationDelegate} on every launch.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LaunchArgumentsBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int count;
+
+    private String args;
+    private List<String> splitArgs;
+    private Set<String> pluginArgumentNames;
+    private String[] envp;
+
+    @Setup
+    public void setup() {
+        StringBuilder sb = new StringBuilder();
+        List<String> list = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String arg;
+            switch (i % 4) {
+            case 0:
+                arg = "-debug:arg" + i + "=value" + i;
+                break;
+            case 1:
+                arg = "-rvm:log=debug";
+                break;
+            case 2:
+                arg = "\"quoted argument " + i + "\"";
+                break;
+            default:
+                arg = "-Dprop" + i + "=value" + i;
+            }
+            if (sb.length() > 0) {
+                sb.append(' ');
+            }
+            sb.append(arg);
+            list.add(arg);
+        }
+        args = sb.toString();
+        splitArgs = list;
+
+        pluginArgumentNames = new HashSet<>();
+        for (int i = 0; i < count; i += 4) {
+            pluginArgumentNames.add("debug:arg" + i);
+        }
+
+        envp = new String[count];
+        for (int i = 0; i < count; i++) {
+            envp[i] = "VARIABLE_" + i + "=/some/path/" + i + ":/another/path/" + i;
+        }
+    }
+
+    @Benchmark
+    public List<String> splitArgs() {
+        return LaunchArguments.splitArgs(args);
+    }
+
+    @Benchmark
+    public List<String> filterPluginArguments() {
+        // filterPluginArguments() removes the matched arguments from the list
+        return LaunchArguments.filterPluginArguments(new ArrayList<>(splitArgs), pluginArgumentNames);
+    }
+
+    @Benchmark
+    public Map<String, String> envToMap() {
+        return LaunchArguments.envToMap(envp);
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2015 RoboVM AB
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package org.robovm.eclipse.benchmarks;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.robovm.eclipse.internal.SourcePaths;
+import org.robovm.eclipse.internal.SourcePaths.Entry;
+import org.robovm.eclipse.internal.SourcePaths.ProjectGraph;
+
+/**
+ * Benchmarks the source path collection done by
+ * {@code RoboVMPlugin.getSourcePaths()} on every debug launch. The workspace
+ * is a synthetic acyclic graph of projects where each project has a few source
+ * folders and libraries and depends on a number of projects with higher
+ * indices. Project 0 is the one being launched.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SourcePathsBenchmark {
+
+    @Param({"10", "50"})
+    public int projects;
+
+    @Param({"1", "3"})
+    public int dependencies;
+
+    private ProjectGraph<Integer, RuntimeException> graph;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(projects * 31 + dependencies);
+        final List<List<Entry<Integer>>> entries = new ArrayList<>();
+        for (int p = 0; p < projects; p++) {
+            List<Entry<Integer>> list = new ArrayList<>();
+            list.add(Entry.<Integer> path("/workspace/project" + p + "/src/main/java"));
+            list.add(Entry.<Integer> path("/workspace/project" + p + "/src/test/java"));
+            for (int d = 0; d < dependencies && p + 1 < projects; d++) {
+                list.add(Entry.project(p + 1 + random.nextInt(projects - p - 1)));
+            }
+            list.add(Entry.<Integer> path("/libs/library" + (p % 10) + "-sources.jar"));
+            entries.add(list);
+        }
+        graph = new ProjectGraph<Integer, RuntimeException>() {
+            @Override
+            public List<Entry<Integer>> getEntries(Integer project) {
+                return entries.get(project);
+            }
+        };
+    }
+
+    @Benchmark
+    public String getSourcePaths() {
+        Set<String> paths = new LinkedHashSet<>();
+        SourcePaths.collect(graph, 0, paths);
+        return SourcePaths.join(paths);
+    }
+}
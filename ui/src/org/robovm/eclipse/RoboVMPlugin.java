@@ -16,6 +16,7 @@
  */
 package org.robovm.eclipse;
 
+import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
@@ -23,16 +24,28 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URL;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.security.DigestInputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
-import java.text.DateFormat;
-import java.util.Arrays;
-import java.util.Date;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 import java.util.zip.GZIPInputStream;
 
 import org.apache.commons.compress.archivers.ArchiveEntry;
@@ -40,11 +53,9 @@ import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
 import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.BoundedInputStream;
 import org.apache.commons.io.output.NullOutputStream;
 import org.eclipse.core.resources.IProject;
-import org.eclipse.core.resources.IResource;
-import org.eclipse.core.resources.IWorkspaceRoot;
-import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.FileLocator;
 import org.eclipse.core.runtime.IPath;
@@ -82,11 +93,18 @@ import org.robovm.compiler.Version;
 import org.robovm.compiler.config.Arch;
 import org.robovm.compiler.config.Config;
 import org.robovm.compiler.config.OS;
-import org.robovm.compiler.config.Resource;
 import org.robovm.compiler.log.Logger;
+import org.robovm.eclipse.internal.BuildManifest;
+import org.robovm.eclipse.internal.ConsoleAppender;
+import org.robovm.eclipse.internal.DeviceTypeCatalog;
+import org.robovm.eclipse.internal.ProjectConfigCache;
 import org.robovm.eclipse.internal.RoboVMCocoaTouchClasspathContainer;
 import org.robovm.eclipse.internal.RoboVMNature;
 import org.robovm.eclipse.internal.RoboVMProjectObserver;
+import org.robovm.eclipse.internal.RuntimeClasspathResolver;
+import org.robovm.eclipse.internal.SigningCatalog;
+import org.robovm.eclipse.internal.SourcePathCache;
+import org.robovm.eclipse.internal.SourcePaths;
 import org.robovm.eclipse.internal.ib.IBIntegratorManager;
 
 /**
@@ -126,7 +144,28 @@ public class RoboVMPlugin extends AbstractUIPlugin implements IStartup {
 
     private static RoboVMPlugin plugin;
     private static IPreferenceStore pluginPreferencesStore;
-    private static Config.Home roboVMHome = null;
+    private static volatile Config.Home roboVMHome = null;
+    private static final Object roboVMHomeLock = new Object();
+    private static final Object roboVMHomeProvisionLock = new Object();
+    private static Job roboVMHomeJob = null;
+    private static List<Runnable> roboVMHomeListeners = new ArrayList<>();
+
+    /**
+     * Maximum number of bytes of extracted file data waiting to be written
+     * while extracting the RoboVM distribution.
+     */
+    private static final int EXTRACT_BYTES_IN_FLIGHT = 64 * 1024 * 1024;
+
+    /**
+     * Number of leading bytes of the bundled RoboVM distribution archive which
+     * are hashed when fingerprinting it.
+     */
+    private static final int DIST_HEAD_SIZE = 1024 * 1024;
+    private static final String DIST_BUNDLE_VERSION = "bundle.version";
+    private static final String DIST_BUNDLE_LAST_MODIFIED = "bundle.lastModified";
+    private static final String DIST_SIZE = "size";
+    private static final String DIST_HEAD_MD5 = "head.md5";
+    private static final String DIST_MD5 = "md5";
 
     private boolean showConsoleOnWrite = true;
     private MessageConsole console;
@@ -134,6 +173,7 @@ public class RoboVMPlugin extends AbstractUIPlugin implements IStartup {
     private MessageConsoleStream infoStream;
     private MessageConsoleStream warnStream;
     private MessageConsoleStream errorStream;
+    private ConsoleAppender consoleAppender;
 
     private static Logger consoleLogger = new Logger() {
         @Override
@@ -197,11 +237,30 @@ public class RoboVMPlugin extends AbstractUIPlugin implements IStartup {
                 errorStream.setColor(errorColor);
             }
         });
+        consoleAppender = new ConsoleAppender(debugStream, infoStream, warnStream, errorStream,
+                new ConsoleAppender.Listener() {
+                    @Override
+                    public void written(int highestLevel) {
+                        consoleWritten(highestLevel);
+                    }
+                });
+        // Set -Drobovm.console.debug=false in eclipse.ini to drop debug
+        // messages without formatting them.
+        consoleAppender.setDebugEnabled(Boolean.parseBoolean(System.getProperty("robovm.console.debug", "true")));
+        consoleAppender.start();
 
         Job job = new Job("RoboVM Interface Builder Integrator launcher") {
             @Override
             protected IStatus run(IProgressMonitor monitor) {
+                scheduleRoboVMHomeProvisioning();
                 try {
+                    ProjectConfigCache.getInstance().start();
+                    SourcePathCache.getInstance().start();
+                    RuntimeClasspathResolver.getInstance().start();
+                    if (getDefaultOS() == OS.macosx) {
+                        SigningCatalog.getInstance().start();
+                        DeviceTypeCatalog.getInstance().start();
+                    }
                     RoboVMProjectObserver.getInstance().start(monitor);
                     IBIntegratorManager.getInstance().start(monitor);
                 } catch (CoreException e) {
@@ -220,6 +279,8 @@ public class RoboVMPlugin extends AbstractUIPlugin implements IStartup {
         synchronized (RoboVMPlugin.class) {
             plugin = null;
         }
+        SigningCatalog.getInstance().stop();
+        consoleAppender.stop();
     }
 
     public static Logger getConsoleLogger() {
@@ -265,7 +326,85 @@ public class RoboVMPlugin extends AbstractUIPlugin implements IStartup {
         return new File(new File(getMetadataDir(), "build"), projectName);
     }
 
-    public static synchronized Config.Home getRoboVMHome() throws IOException {
+    /**
+     * Returns the RoboVM home if it has been provisioned already. Otherwise
+     * schedules provisioning in a background job, if not already scheduled,
+     * and returns {@code null}. Never blocks.
+     */
+    public static Config.Home getRoboVMHomeIfReady() {
+        Config.Home home = roboVMHome;
+        if (home == null) {
+            scheduleRoboVMHomeProvisioning();
+        }
+        return home;
+    }
+
+    /**
+     * Runs the specified {@link Runnable} once the RoboVM home has been
+     * provisioned. If it already has the {@link Runnable} is run immediately
+     * in the calling thread.
+     */
+    public static void runWhenRoboVMHomeReady(Runnable r) {
+        synchronized (roboVMHomeLock) {
+            if (roboVMHome == null) {
+                roboVMHomeListeners.add(r);
+                scheduleRoboVMHomeProvisioning();
+                return;
+            }
+        }
+        r.run();
+    }
+
+    private static void scheduleRoboVMHomeProvisioning() {
+        synchronized (roboVMHomeLock) {
+            if (roboVMHome != null || roboVMHomeJob != null) {
+                return;
+            }
+            roboVMHomeJob = new Job("Preparing RoboVM distribution") {
+                @Override
+                protected IStatus run(IProgressMonitor monitor) {
+                    List<Runnable> listeners = null;
+                    try {
+                        getRoboVMHome();
+                    } catch (IOException e) {
+                        return new Status(IStatus.ERROR, PLUGIN_ID,
+                                "Failed to prepare the RoboVM distribution", e);
+                    } finally {
+                        synchronized (roboVMHomeLock) {
+                            roboVMHomeJob = null;
+                            if (roboVMHome != null) {
+                                listeners = roboVMHomeListeners;
+                                roboVMHomeListeners = new ArrayList<>();
+                            }
+                        }
+                    }
+                    for (Runnable r : listeners) {
+                        try {
+                            r.run();
+                        } catch (Throwable t) {
+                            log(t);
+                        }
+                    }
+                    return Status.OK_STATUS;
+                }
+            };
+            roboVMHomeJob.schedule();
+        }
+    }
+
+    public static Config.Home getRoboVMHome() throws IOException {
+        Config.Home home = roboVMHome;
+        if (home != null) {
+            return home;
+        }
+        // Not the class monitor since getShell() and friends use that and
+        // provisioning can take a long time.
+        synchronized (roboVMHomeProvisionLock) {
+            return provisionRoboVMHome();
+        }
+    }
+
+    private static Config.Home provisionRoboVMHome() throws IOException {
         if (roboVMHome == null) {
             if (System.getenv("ROBOVM_DEV_ROOT") != null) {
                 roboVMHome = Config.Home.find();
@@ -273,23 +412,32 @@ public class RoboVMPlugin extends AbstractUIPlugin implements IStartup {
                 String version = Version.getVersion();
                 File homeDir = new File(getMetadataDir(), "robovm-" + version);
                 File distFile = new File(getMetadataDir(), "robovm-dist-" + version + ".tar.gz");
+                File md5File = new File(getMetadataDir(), "robovm-dist-" + version + ".tar.gz.md5");
+                File manifestFile = new File(getMetadataDir(), "robovm-dist-" + version + ".manifest");
                 URL distUrl = RoboVMPlugin.class.getResource("/lib/robovm-dist.tar.gz");
                 if (homeDir.exists() && version.contains("SNAPSHOT")) {
-                    byte[] oldMd5 = new byte[0];
-                    if (distFile.exists()) {
-                        oldMd5 = md5(distFile);
-                    }
-                    byte[] newMd5 = md5(distUrl);
-                    if (!Arrays.equals(oldMd5, newMd5)) {
-                        FileUtils.deleteDirectory(homeDir);
+                    // Only hash the whole archive if the cheap fingerprint
+                    // doesn't match the one recorded when it was extracted.
+                    Properties fingerprint = getDistFingerprint(distUrl);
+                    Properties manifest = loadDistManifest(manifestFile);
+                    if (manifest == null || !matchesDistFingerprint(manifest, fingerprint)) {
+                        String md5 = BuildManifest.toHex(md5(distUrl));
+                        if (manifest != null && md5.equals(manifest.getProperty(DIST_MD5))) {
+                            storeDistManifest(manifestFile, fingerprint, md5);
+                        } else {
+                            FileUtils.deleteDirectory(homeDir);
+                        }
                     }
                 }
 
                 if (!homeDir.exists()) {
-                    // Copy the tar.gz to distFile and extract.
+                    // Older versions copied the tar.gz to distFile before
+                    // extracting it and stored its MD5 in md5File.
                     distFile.delete();
-                    FileUtils.copyURLToFile(distUrl, distFile);
-                    extractTarGz(distFile, distFile.getParentFile());
+                    md5File.delete();
+                    manifestFile.delete();
+                    String md5 = BuildManifest.toHex(extractTarGz(distUrl, homeDir));
+                    storeDistManifest(manifestFile, getDistFingerprint(distUrl), md5);
                 }
                 roboVMHome = new Config.Home(homeDir);
             }
@@ -297,38 +445,183 @@ public class RoboVMPlugin extends AbstractUIPlugin implements IStartup {
         return roboVMHome;
     }
 
-    private static void extractTarGz(File archive, File destDir) throws IOException {
+    /**
+     * Extracts the RoboVM distribution archive at the specified {@link URL}
+     * straight from the stream into a staging directory and then renames the
+     * extracted root directory to {@code homeDir}. Files are written by a pool
+     * of writer threads while the archive is being decompressed. Entries
+     * bigger than {@link #EXTRACT_BYTES_IN_FLIGHT} are written directly by the
+     * reading thread.
+     * 
+     * @return the MD5 digest of the archive.
+     */
+    private static byte[] extractTarGz(URL archive, File homeDir) throws IOException {
+        File stagingDir = new File(homeDir.getParentFile(), homeDir.getName() + ".staging");
+        FileUtils.deleteDirectory(stagingDir);
+        stagingDir.mkdirs();
+
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("md5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new Error(e);
+        }
+
+        final Semaphore bytesInFlight = new Semaphore(EXTRACT_BYTES_IN_FLIGHT);
+        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        List<Future<?>> futures = new ArrayList<>();
+        DigestInputStream dis = null;
         TarArchiveInputStream in = null;
         try {
-            in = new TarArchiveInputStream(new GZIPInputStream(new FileInputStream(archive)));
+            dis = new DigestInputStream(new BufferedInputStream(archive.openStream(), 64 * 1024), digest);
+            in = new TarArchiveInputStream(new GZIPInputStream(dis, 64 * 1024));
             ArchiveEntry entry = null;
             while ((entry = in.getNextEntry()) != null) {
-                File f = new File(destDir, entry.getName());
+                final File f = new File(stagingDir, entry.getName());
+                final int mode = entry instanceof TarArchiveEntry ? ((TarArchiveEntry) entry).getMode() : 0;
                 if (entry.isDirectory()) {
                     f.mkdirs();
+                    setMode(f, mode);
                 } else {
                     f.getParentFile().mkdirs();
-                    OutputStream out = null;
-                    try {
-                        out = new FileOutputStream(f);
-                        IOUtils.copy(in, out);
-                    } finally {
-                        IOUtils.closeQuietly(out);
-                    }
-                }
-                if (entry instanceof TarArchiveEntry) {
-                    int mode = ((TarArchiveEntry) entry).getMode();
-                    if ((mode & 00100) > 0) {
-                        // Preserve execute permissions
-                        f.setExecutable(true, (mode & 00001) == 0);
+                    long size = entry.getSize();
+                    if (size > EXTRACT_BYTES_IN_FLIGHT) {
+                        FileOutputStream out = new FileOutputStream(f);
+                        try {
+                            FileChannel channel = out.getChannel();
+                            ReadableByteChannel src = Channels.newChannel(in);
+                            long position = 0;
+                            while (position < size) {
+                                long n = channel.transferFrom(src, position, size - position);
+                                if (n <= 0) {
+                                    break;
+                                }
+                                position += n;
+                            }
+                        } finally {
+                            IOUtils.closeQuietly(out);
+                        }
+                        setMode(f, mode);
+                    } else {
+                        final int permits = (int) size;
+                        bytesInFlight.acquireUninterruptibly(permits);
+                        final byte[] data = IOUtils.toByteArray(in, size);
+                        futures.add(executor.submit(new Callable<Void>() {
+                            @Override
+                            public Void call() throws Exception {
+                                try {
+                                    FileOutputStream out = new FileOutputStream(f);
+                                    try {
+                                        ByteBuffer buffer = ByteBuffer.wrap(data);
+                                        FileChannel channel = out.getChannel();
+                                        while (buffer.hasRemaining()) {
+                                            channel.write(buffer);
+                                        }
+                                    } finally {
+                                        IOUtils.closeQuietly(out);
+                                    }
+                                    setMode(f, mode);
+                                    return null;
+                                } finally {
+                                    bytesInFlight.release(permits);
+                                }
+                            }
+                        }));
                     }
                 }
             }
+            // Make sure the digest covers any trailing bytes not consumed by
+            // the tar and gzip streams.
+            IOUtils.copy(dis, new NullOutputStream());
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+            IOUtils.closeQuietly(in);
+        }
+
+        Files.move(new File(stagingDir, homeDir.getName()).toPath(), homeDir.toPath(),
+                StandardCopyOption.ATOMIC_MOVE);
+        FileUtils.deleteDirectory(stagingDir);
+        return digest.digest();
+    }
+
+    /**
+     * Returns a fingerprint of the bundled RoboVM distribution which is cheap
+     * to compute: the plugin's bundle version and modification time, the size
+     * of the archive and an MD5 of its first {@link #DIST_HEAD_SIZE} bytes.
+     */
+    private static Properties getDistFingerprint(URL distUrl) throws IOException {
+        Bundle bundle = getDefault().getBundle();
+        Properties fingerprint = new Properties();
+        fingerprint.setProperty(DIST_BUNDLE_VERSION, bundle.getVersion().toString());
+        fingerprint.setProperty(DIST_BUNDLE_LAST_MODIFIED, String.valueOf(bundle.getLastModified()));
+        URLConnection conn = distUrl.openConnection();
+        fingerprint.setProperty(DIST_SIZE, String.valueOf(conn.getContentLengthLong()));
+        InputStream in = conn.getInputStream();
+        try {
+            fingerprint.setProperty(DIST_HEAD_MD5, BuildManifest.toHex(md5(new BoundedInputStream(in, DIST_HEAD_SIZE))));
+        } finally {
+            IOUtils.closeQuietly(in);
+        }
+        return fingerprint;
+    }
+
+    private static boolean matchesDistFingerprint(Properties manifest, Properties fingerprint) {
+        for (String key : fingerprint.stringPropertyNames()) {
+            if (!fingerprint.getProperty(key).equals(manifest.getProperty(key))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Properties loadDistManifest(File file) {
+        if (!file.exists()) {
+            return null;
+        }
+        InputStream in = null;
+        try {
+            in = new FileInputStream(file);
+            Properties manifest = new Properties();
+            manifest.load(in);
+            return manifest;
+        } catch (IOException e) {
+            return null;
         } finally {
             IOUtils.closeQuietly(in);
         }
     }
 
+    private static void storeDistManifest(File file, Properties fingerprint, String md5) throws IOException {
+        Properties manifest = new Properties();
+        manifest.putAll(fingerprint);
+        manifest.setProperty(DIST_MD5, md5);
+        OutputStream out = null;
+        try {
+            out = new FileOutputStream(file);
+            manifest.store(out, null);
+        } finally {
+            IOUtils.closeQuietly(out);
+        }
+    }
+
+    private static void setMode(File f, int mode) {
+        if ((mode & 00100) > 0) {
+            // Preserve execute permissions
+            f.setExecutable(true, (mode & 00001) == 0);
+        }
+    }
+
     public static boolean isRoboVMProject(IProject project) throws CoreException {
         if (project.getNature(RoboVMNature.ID) == null) {
             return false;
@@ -355,27 +648,7 @@ public class RoboVMPlugin extends AbstractUIPlugin implements IStartup {
 
     public static Set<File> getRoboVMProjectResourcePaths(IProject project) {
         try {
-            File projectRoot = project.getLocation().toFile();
-            Config.Builder configBuilder = new Config.Builder();
-            configBuilder.home(RoboVMPlugin.getRoboVMHome());
-            // Fake a classpath to make Config happy
-            configBuilder.addClasspathEntry(Files.createTempDirectory("empty").toFile());
-            configBuilder.skipLinking(true);
-            RoboVMPlugin.loadConfig(configBuilder, projectRoot, false);
-            Config config = configBuilder.build();
-            Set<File> paths = new HashSet<>();
-            for (Resource r : config.getResources()) {
-                if (r.getPath() != null) {
-                    if (r.getPath().exists() && r.getPath().isDirectory()) {
-                        paths.add(r.getPath());
-                    }
-                } else if (r.getDirectory() != null) {
-                    if (r.getDirectory().exists() && r.getDirectory().isDirectory()) {
-                        paths.add(r.getDirectory());
-                    }
-                }
-            }
-            return paths;
+            return new HashSet<>(ProjectConfigCache.getInstance().getSnapshot(project).getResourcePaths());
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -383,24 +656,14 @@ public class RoboVMPlugin extends AbstractUIPlugin implements IStartup {
 
     public static File getRoboVMProjectInfoPlist(IProject project) {
         try {
-            File projectRoot = project.getLocation().toFile();
-            Config.Builder configBuilder = new Config.Builder();
-            configBuilder.home(RoboVMPlugin.getRoboVMHome());
-            // Fake a classpath to make Config happy
-            configBuilder.addClasspathEntry(Files.createTempDirectory("empty").toFile());
-            configBuilder.skipLinking(true);
-            RoboVMPlugin.loadConfig(configBuilder, projectRoot, false);
-            Config config = configBuilder.build();
-            if (config.getIosInfoPList() != null) {
-                return config.getIosInfoPList().getFile();
-            }
-            return null;
+            return ProjectConfigCache.getInstance().getSnapshot(project).getInfoPlist();
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
 
-    private static void getSourcePaths(Set<String> paths, IJavaProject javaProject) throws CoreException {
+    public static String getSourcePaths(IJavaProject javaProject) throws CoreException {
+        Set<String> paths = new LinkedHashSet<String>();
         try {
             // add the source jars of rt/objc/cocoatouch etc.
             File libDir = new File(RoboVMPlugin.getRoboVMHome().getBinDir().getParentFile(), "lib");
@@ -410,48 +673,8 @@ public class RoboVMPlugin extends AbstractUIPlugin implements IStartup {
         } catch (IOException e) {
             RoboVMPlugin.consoleError("Couldn't retrieve lib/ directory");
         }
-        IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
-        for (IClasspathEntry entry : javaProject.getResolvedClasspath(true)) {
-            IPath path = null;
-            if (entry.getEntryKind() == IClasspathEntry.CPE_SOURCE) {
-                IResource resource = root.findMember(entry.getPath());
-                if (resource != null) {
-                    path = resource.getLocation();
-                }
-            } else if (entry.getEntryKind() == IClasspathEntry.CPE_LIBRARY) {
-                if (entry.getSourceAttachmentPath() != null) {
-                    path = entry.getSourceAttachmentPath();
-                }
-            } else if (entry.getEntryKind() == IClasspathEntry.CPE_PROJECT) {
-                IProject project = ResourcesPlugin.getWorkspace().getRoot().getProject(entry.getPath().toString());
-                if (project.isNatureEnabled("org.eclipse.jdt.core.javanature")) {
-                    getSourcePaths(paths, JavaCore.create(project));
-                }
-            }
-            if (path != null) {
-                paths.add(path.toOSString());
-            }
-        }
-    }
-
-    public static String getSourcePaths(IJavaProject javaProject) throws CoreException {
-        Set<String> paths = new LinkedHashSet<String>();
-        getSourcePaths(paths, javaProject);
-        StringBuilder builder = new StringBuilder();
-        for (String path : paths) {
-            builder.append(path);
-            builder.append(":");
-        }
-        return builder.toString();
-    }
-
-    private static byte[] md5(File file) throws IOException {
-        InputStream in = new FileInputStream(file);
-        try {
-            return md5(in);
-        } finally {
-            IOUtils.closeQuietly(in);
-        }
+        paths.addAll(SourcePathCache.getInstance().getSourcePaths(javaProject));
+        return SourcePaths.join(paths);
     }
 
     private static byte[] md5(URL url) throws IOException {
@@ -515,40 +738,37 @@ public class RoboVMPlugin extends AbstractUIPlugin implements IStartup {
         return configBuilder;
     }
 
-    private static String now() {
-        DateFormat df = DateFormat.getDateTimeInstance(DateFormat.SHORT, DateFormat.MEDIUM);
-        return df.format(new Date());
+    public static void consoleDebug(String format, Object... args) {
+        console(ConsoleAppender.DEBUG, format, args);
     }
 
-    public static synchronized void consoleDebug(String format, Object... args) {
-        if (plugin != null) {
-            String msg = String.format(format, args);
-            plugin.debugStream.println(now() + ": [DEBUG] " + msg);
-            showConsoleIfFirstWrite();
-        }
+    public static void consoleInfo(String format, Object... args) {
+        console(ConsoleAppender.INFO, format, args);
     }
 
-    public static synchronized void consoleInfo(String format, Object... args) {
-        if (plugin != null) {
-            String msg = String.format(format, args);
-            plugin.infoStream.println(now() + ": [ INFO] " + msg);
-            showConsoleIfFirstWrite();
-        }
+    public static void consoleWarn(String format, Object... args) {
+        console(ConsoleAppender.WARN, format, args);
     }
 
-    public static synchronized void consoleWarn(String format, Object... args) {
-        if (plugin != null) {
-            String msg = String.format(format, args);
-            plugin.warnStream.println(now() + ": [ WARN] " + msg);
-            showConsole();
+    public static void consoleError(String format, Object... args) {
+        console(ConsoleAppender.ERROR, format, args);
+    }
+
+    private static void console(int level, String format, Object... args) {
+        RoboVMPlugin p = plugin;
+        if (p != null) {
+            p.consoleAppender.append(level, format, args);
         }
     }
 
-    public static synchronized void consoleError(String format, Object... args) {
-        if (plugin != null) {
-            String msg = String.format(format, args);
-            plugin.errorStream.println(now() + ": [ERROR] " + msg);
+    private static synchronized void consoleWritten(int highestLevel) {
+        if (plugin == null) {
+            return;
+        }
+        if (highestLevel >= ConsoleAppender.WARN) {
             showConsole();
+        } else {
+            showConsoleIfFirstWrite();
         }
     }
 
@@ -25,20 +25,21 @@ import java.io.PipedOutputStream;
 import java.net.ServerSocket;
 import java.text.DateFormat;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
-import org.apache.commons.exec.CommandLine;
 import org.apache.commons.io.FileUtils;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.SubProgressMonitor;
 import org.eclipse.debug.core.DebugPlugin;
 import org.eclipse.debug.core.ILaunch;
 import org.eclipse.debug.core.ILaunchConfiguration;
@@ -49,7 +50,9 @@ import org.eclipse.jdi.internal.VirtualMachineImpl;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.debug.core.JDIDebugModel;
 import org.eclipse.jdt.launching.AbstractJavaLaunchConfigurationDelegate;
+import org.eclipse.jdt.launching.IJavaLaunchConfigurationConstants;
 import org.robovm.compiler.AppCompiler;
+import org.robovm.compiler.Version;
 import org.robovm.compiler.config.Arch;
 import org.robovm.compiler.config.Config;
 import org.robovm.compiler.config.Config.Builder;
@@ -59,7 +62,6 @@ import org.robovm.compiler.plugin.Plugin;
 import org.robovm.compiler.plugin.PluginArgument;
 import org.robovm.compiler.target.LaunchParameters;
 import org.robovm.compiler.util.io.Fifos;
-import org.robovm.compiler.util.io.OpenOnReadFileInputStream;
 import org.robovm.eclipse.RoboVMPlugin;
 
 import com.sun.jdi.VirtualMachine;
@@ -77,6 +79,14 @@ public abstract class AbstractLaunchConfigurationDelegate extends AbstractJavaLa
      * Timeout in ms used by the debugger when waiting for responses from the debugee.
      */
     private static final int DEBUGGER_REQUEST_TIMEOUT = 15 * 1000;
+    private static final int ATTACH_TIMEOUT = 60 * 1000;
+    private static final int ATTACH_INITIAL_DELAY = 10;
+    private static final int ATTACH_MAX_DELAY = 500;
+    private static final int STDIN_BUFFER_SIZE = Integer.getInteger("robovm.launch.stdinBufferSize", 64 * 1024);
+
+    private static final int BUILD_DIR_UP_TO_DATE = 0;
+    private static final int BUILD_DIR_REUSED = 1;
+    private static final int BUILD_DIR_CLEANED = 2;
 
     protected abstract Arch getArch(ILaunchConfiguration configuration, String mode) throws CoreException;
 
@@ -91,6 +101,22 @@ public abstract class AbstractLaunchConfigurationDelegate extends AbstractJavaLa
         launchParameters.setStderrFifo(Fifos.mkfifo("stderr"));
     }
 
+    /**
+     * Uses the cached classpath of the launched project when the
+     * configuration uses the project's default classpath.
+     */
+    @Override
+    public String[] getClasspath(ILaunchConfiguration configuration) throws CoreException {
+        IJavaProject javaProject = getJavaProject(configuration);
+        if (javaProject != null
+                && configuration.getAttribute(IJavaLaunchConfigurationConstants.ATTR_DEFAULT_CLASSPATH, true)
+                && configuration.getAttribute(IJavaLaunchConfigurationConstants.ATTR_CLASSPATH_PROVIDER,
+                        (String) null) == null) {
+            return RuntimeClasspathResolver.getInstance().getRuntimeClasspath(javaProject);
+        }
+        return super.getClasspath(configuration);
+    }
+
     protected boolean isTestConfiguration() {
         return false;
     }
@@ -108,14 +134,17 @@ public abstract class AbstractLaunchConfigurationDelegate extends AbstractJavaLa
             return;
         }
 
+        LaunchMetrics metrics = new LaunchMetrics(configuration.getName(), mode);
+        boolean launched = false;
         try {
+            metrics.phase(LaunchMetrics.VERIFY);
             monitor.subTask("Verifying launch attributes");
 
             String mainTypeName = getMainTypeName(configuration);
             File workingDir = getWorkingDirectory(configuration);
             String[] envp = getEnvironment(configuration);
-            List<String> pgmArgs = splitArgs(getProgramArguments(configuration));
-            List<String> vmArgs = splitArgs(getVMArguments(configuration));
+            List<String> pgmArgs = LaunchArguments.splitArgs(getProgramArguments(configuration));
+            List<String> vmArgs = LaunchArguments.splitArgs(getVMArguments(configuration));
             String[] classpath = getClasspath(configuration);
             String[] bootclasspath = getBootpath(configuration);
             IJavaProject javaProject = getJavaProject(configuration);
@@ -135,6 +164,7 @@ public abstract class AbstractLaunchConfigurationDelegate extends AbstractJavaLa
             setDefaultSourceLocator(launch, configuration);
             monitor.worked(1);
 
+            metrics.phase(LaunchMetrics.CONFIG);
             monitor.subTask("Creating build configuration");
             Config.Builder configBuilder;
             try {
@@ -143,13 +173,18 @@ public abstract class AbstractLaunchConfigurationDelegate extends AbstractJavaLa
                 throw new CoreException(new Status(IStatus.ERROR, RoboVMPlugin.PLUGIN_ID,
                         "Launch failed. Check the RoboVM console for more information.", e));
             }
-            configBuilder.logger(RoboVMPlugin.getConsoleLogger());
+            BuildCancellation cancellation = new BuildCancellation();
+            BuildProgress progress = new BuildProgress();
+            configBuilder.logger(cancellation.wrap(progress.wrap(metrics.wrap(RoboVMPlugin.getConsoleLogger()))));
 
             File projectRoot = getJavaProject(configuration).getProject().getLocation().toFile();
+            metrics.phase(LaunchMetrics.LOAD_CONFIG);
             RoboVMPlugin.loadConfig(configBuilder, projectRoot, isTestConfiguration());
+            metrics.phase(LaunchMetrics.CONFIG);
 
             Arch arch = getArch(configuration, mode);
             OS os = getOS(configuration, mode);
+            metrics.setTarget(os + "/" + arch);
 
             configBuilder.os(os);
             configBuilder.arch(arch);
@@ -189,41 +224,100 @@ public abstract class AbstractLaunchConfigurationDelegate extends AbstractJavaLa
             }
             // we need to filter those vm args that belong to plugins
             // in case of iOS run configs, we can only pass program args
-            filterPluginArguments(vmArgs, configBuilder);
-            filterPluginArguments(pgmArgs, configBuilder);
+            List<String> pluginArgs = new ArrayList<String>();
+            pluginArgs.addAll(filterPluginArguments(vmArgs, configBuilder));
+            pluginArgs.addAll(filterPluginArguments(pgmArgs, configBuilder));
 
             configBuilder.tmpDir(tmpDir);
             configBuilder.skipInstall(true);
 
             Config config = null;
             AppCompiler compiler = null;
+            BuildScheduler.Ticket ticket = null;
             try {
-                RoboVMPlugin.consoleInfo("Cleaning output dir " + tmpDir.getAbsolutePath());
-                FileUtils.deleteDirectory(tmpDir);
-                tmpDir.mkdirs();
-
                 Home home = RoboVMPlugin.getRoboVMHome();
                 if (home.isDev()) {
                     configBuilder.useDebugLibs(Boolean.getBoolean("robovm.useDebugLibs"));
                     configBuilder.dumpIntermediates(true);
                 }
+
+                BuildManifest manifest = new BuildManifest(tmpDir);
+                manifest.put(BuildManifest.ROBOVM_VERSION, Version.getVersion());
+                manifest.put(BuildManifest.ROBOVM_HOME, home.getBinDir().getAbsolutePath());
+                manifest.put(BuildManifest.OS, os);
+                manifest.put(BuildManifest.ARCH, arch);
+                manifest.put(BuildManifest.DEBUG, ILaunchManager.DEBUG_MODE.equals(mode));
+                manifest.put(BuildManifest.MAIN_CLASS, mainTypeName);
+                manifest.put(BuildManifest.PROJECT_CONFIG, BuildManifest.hashProjectConfig(projectRoot));
+                manifest.put(BuildManifest.PLUGIN_ARGUMENTS, pluginArgs);
+                manifest.put(BuildManifest.BOOTCLASSPATH, bootclasspath);
+                manifest.put(BuildManifest.CLASSPATH, classpath);
+                List<String> fingerprintEntries = new ArrayList<String>();
+                if (bootclasspath != null) {
+                    fingerprintEntries.addAll(Arrays.asList(bootclasspath));
+                }
+                fingerprintEntries.addAll(Arrays.asList(classpath));
+                manifest.put(BuildManifest.CLASSPATH_FINGERPRINT, ClasspathFingerprint.compute(
+                        fingerprintEntries.toArray(new String[fingerprintEntries.size()])));
+                // Resources and the Info.plist are packaged into the app. Any
+                // change to them must rebuild even if no class has changed.
+                List<String> resourceEntries = new ArrayList<String>();
+                for (File f : ProjectConfigCache.getInstance()
+                        .getSnapshot(javaProject.getProject(), isTestConfiguration()).getInputFiles()) {
+                    resourceEntries.add(f.getAbsolutePath());
+                }
+                manifest.put(BuildManifest.RESOURCES_FINGERPRINT, ClasspathFingerprint.compute(
+                        resourceEntries.toArray(new String[resourceEntries.size()])));
+                addBuildInputs(manifest, configuration, mode);
+                metrics.phase(LaunchMetrics.QUEUE);
+                ticket = BuildScheduler.getInstance().acquire(getJavaProjectName(configuration), tmpDir,
+                        manifest.getFingerprint(), monitor);
+                if (ticket == null) {
+                    RoboVMPlugin.consoleInfo("Build canceled");
+                    return;
+                }
+                configBuilder.threads(ticket.getThreads());
+                metrics.phase(LaunchMetrics.CLEAN);
+                int buildDirState = prepareBuildDir(tmpDir, manifest);
+                metrics.phase(LaunchMetrics.CONFIG);
+
                 configBuilder.home(home);
                 config = configure(configBuilder, configuration, mode).build();
+                RoboVMClassBuilder.setLastTarget(javaProject.getProject(), config, isTestConfiguration());
                 compiler = new AppCompiler(config);
                 if (monitor.isCanceled()) {
                     return;
                 }
                 monitor.worked(1);
 
-                monitor.subTask("Building executable");
-                AppCompilerThread thread = new AppCompilerThread(compiler, monitor);
-                thread.compile();
-                if (monitor.isCanceled()) {
-                    RoboVMPlugin.consoleInfo("Build canceled");
-                    return;
+                if (buildDirState == BUILD_DIR_UP_TO_DATE) {
+                    RoboVMPlugin.consoleInfo("Nothing has changed since the last build. Skipping build.");
+                    monitor.worked(1);
+                } else {
+                    metrics.phase(LaunchMetrics.COMPILE);
+                    metrics.setProgress(progress);
+                    monitor.subTask("Building executable");
+                    // Only a build into a clean output dir can be expected to
+                    // compile as many classes as the previous clean build.
+                    boolean fullBuild = buildDirState == BUILD_DIR_CLEANED;
+                    progress.begin(new SubProgressMonitor(monitor, 1), fullBuild, fullBuild
+                            ? BuildMetricsHistory.getInstance().getExpectedClasses(configuration.getName()) : 0);
+                    AppCompilerThread thread = new AppCompilerThread(compiler, monitor, cancellation);
+                    try {
+                        thread.compile();
+                    } finally {
+                        progress.done();
+                    }
+                    if (thread.getCancelLatency() != -1) {
+                        metrics.record(LaunchMetrics.CANCEL, thread.getCancelLatency());
+                    }
+                    if (monitor.isCanceled()) {
+                        RoboVMPlugin.consoleInfo("Build canceled");
+                        return;
+                    }
+                    manifest.store();
+                    RoboVMPlugin.consoleInfo("Build done");
                 }
-                monitor.worked(1);
-                RoboVMPlugin.consoleInfo("Build done");
             } catch (InterruptedException e) {
                 RoboVMPlugin.consoleInfo("Build canceled");
                 return;
@@ -231,9 +325,14 @@ public abstract class AbstractLaunchConfigurationDelegate extends AbstractJavaLa
                 RoboVMPlugin.consoleError("Build failed");
                 throw new CoreException(new Status(IStatus.ERROR, RoboVMPlugin.PLUGIN_ID,
                         "Build failed. Check the RoboVM console for more information.", e));
+            } finally {
+                if (ticket != null) {
+                    ticket.release();
+                }
             }
 
             try {
+                metrics.phase(LaunchMetrics.LAUNCH);
                 RoboVMPlugin.consoleInfo("Launching executable");
                 monitor.subTask("Launching executable");
                 mainTypeName = config.getMainClass();
@@ -244,7 +343,7 @@ public abstract class AbstractLaunchConfigurationDelegate extends AbstractJavaLa
                 LaunchParameters launchParameters = config.getTarget().createLaunchParameters();
                 launchParameters.setArguments(runArgs);
                 launchParameters.setWorkingDirectory(workingDir);
-                launchParameters.setEnvironment(envToMap(envp));
+                launchParameters.setEnvironment(LaunchArguments.envToMap(envp));
                 customizeLaunchParameters(config, launchParameters, configuration, mode);
                 String label = String.format("%s (%s)", mainTypeName,
                         DateFormat.getDateTimeInstance(DateFormat.MEDIUM, DateFormat.MEDIUM).format(new Date()));
@@ -252,17 +351,17 @@ public abstract class AbstractLaunchConfigurationDelegate extends AbstractJavaLa
                 // it then writes to. Need to save the original fifos
                 File stdOutFifo = launchParameters.getStdoutFifo();
                 File stdErrFifo = launchParameters.getStderrFifo();
-                PipedInputStream pipedIn = new PipedInputStream();
+                PipedInputStream pipedIn = new PipedInputStream(STDIN_BUFFER_SIZE);
                 PipedOutputStream pipedOut = new PipedOutputStream(pipedIn);
                 Process process = compiler.launchAsync(launchParameters, pipedIn);
                 if (stdOutFifo != null || stdErrFifo != null) {
                     InputStream stdoutStream = null;
                     InputStream stderrStream = null;
                     if (launchParameters.getStdoutFifo() != null) {
-                        stdoutStream = new OpenOnReadFileInputStream(stdOutFifo);
+                        stdoutStream = new StreamPump("stdout", stdOutFifo);
                     }
                     if (launchParameters.getStderrFifo() != null) {
-                        stderrStream = new OpenOnReadFileInputStream(stdErrFifo);
+                        stderrStream = new StreamPump("stderr", stdErrFifo);
                     }
                     process = new ProcessProxy(process, pipedOut, stdoutStream, stderrStream, compiler);
                 }
@@ -271,7 +370,8 @@ public abstract class AbstractLaunchConfigurationDelegate extends AbstractJavaLa
                 
                 // setup the debugger
                 if (ILaunchManager.DEBUG_MODE.equals(mode) && hasDebugPlugin) {
-                    VirtualMachine vm = attachToVm(monitor, debuggerPort);
+                    metrics.phase(LaunchMetrics.ATTACH);
+                    VirtualMachine vm = attachToVm(monitor, process, debuggerPort);
                     // we were canceled
                     if (vm == null) {
                         process.destroy();
@@ -284,6 +384,7 @@ public abstract class AbstractLaunchConfigurationDelegate extends AbstractJavaLa
                             true, false, true);
                 }
                 RoboVMPlugin.consoleInfo("Launch done");
+                launched = true;
 
                 if (monitor.isCanceled()) {
                     process.destroy();
@@ -297,30 +398,87 @@ public abstract class AbstractLaunchConfigurationDelegate extends AbstractJavaLa
             }
 
         } finally {
+            if (launched) {
+                metrics.done(LaunchMetrics.RESULT_OK);
+            } else {
+                metrics.done(monitor.isCanceled() ? LaunchMetrics.RESULT_CANCELED : LaunchMetrics.RESULT_FAILED);
+            }
             monitor.done();
         }
     }
 
-    private void filterPluginArguments(List<String> args, Builder configBuilder) {
-        Map<String, PluginArgument> pluginArguments = configBuilder.fetchPluginArguments();
-        Iterator<String> iter = args.iterator();
-        while (iter.hasNext()) {
-            String arg = iter.next();
-            if (!arg.startsWith("-rvm") && arg.startsWith("-")) {
-                String argName = arg.substring(1);
-                if (argName.contains("=")) {
-                    argName = argName.substring(0, argName.indexOf('='));
-                }
-                PluginArgument pluginArg = pluginArguments.get(argName);
-                if (pluginArg != null) {
-                    configBuilder.addPluginArgument(arg.substring(1));
-                    iter.remove();
-                }
+    /**
+     * Adds launch type specific inputs to the manifest of the build. Any change
+     * to these inputs will trigger a build on the next launch. The launch
+     * configuration itself isn't an input. Only what is added here and what
+     * ends up in the {@link Config} is.
+     */
+    protected void addBuildInputs(BuildManifest manifest, ILaunchConfiguration configuration, String mode)
+            throws CoreException {
+    }
+
+    /**
+     * Returns a hash of the specified attributes of the specified launch
+     * configuration. Subclasses use this from
+     * {@link #addBuildInputs(BuildManifest, ILaunchConfiguration, String)} to
+     * record the attributes which affect the build. Attributes which only
+     * affect how the app is run, like program arguments, environment and
+     * working directory, must not be hashed or they would force a rebuild.
+     */
+    protected String hashAttributes(ILaunchConfiguration configuration, String... names) throws CoreException {
+        Map<?, ?> attributes = configuration.getAttributes();
+        StringBuilder sb = new StringBuilder();
+        for (String name : names) {
+            sb.append(name).append('=').append(attributes.get(name)).append('\n');
+        }
+        return BuildManifest.hash(sb.toString());
+    }
+
+    /**
+     * Wipes the build directory unless the manifest of the last successful
+     * build shows that it can be reused for a build with the specified inputs.
+     * Set the {@code robovm.cleanBuild} system property to always wipe it.
+     * 
+     * @return {@link #BUILD_DIR_UP_TO_DATE} if none of the inputs have changed
+     *         since the last successful build and the build can be skipped,
+     *         {@link #BUILD_DIR_CLEANED} if the build directory was wiped and
+     *         {@link #BUILD_DIR_REUSED} otherwise.
+     */
+    private int prepareBuildDir(File tmpDir, BuildManifest manifest) throws IOException {
+        BuildManifest previous = BuildManifest.load(tmpDir);
+        int state = BUILD_DIR_CLEANED;
+        if (previous == null || Boolean.getBoolean("robovm.cleanBuild")) {
+            RoboVMPlugin.consoleInfo("Cleaning output dir " + tmpDir.getAbsolutePath());
+            FileUtils.deleteDirectory(tmpDir);
+        } else {
+            Set<String> changedInputs = manifest.getChangedInputs(previous);
+            if (changedInputs.isEmpty()) {
+                return BUILD_DIR_UP_TO_DATE;
+            }
+            if (BuildManifest.requiresClean(changedInputs)) {
+                RoboVMPlugin.consoleInfo("Cleaning output dir " + tmpDir.getAbsolutePath()
+                        + " (changed inputs: " + changedInputs + ")");
+                FileUtils.deleteDirectory(tmpDir);
+            } else {
+                RoboVMPlugin.consoleInfo("Reusing output dir " + tmpDir.getAbsolutePath());
+                state = BUILD_DIR_REUSED;
             }
-        }        
+        }
+        tmpDir.mkdirs();
+        BuildManifest.delete(tmpDir);
+        return state;
     }
 
-    private VirtualMachine attachToVm(IProgressMonitor monitor, int port) throws CoreException {
+    private List<String> filterPluginArguments(List<String> args, Builder configBuilder) {
+        Map<String, PluginArgument> pluginArguments = configBuilder.fetchPluginArguments();
+        List<String> result = LaunchArguments.filterPluginArguments(args, pluginArguments.keySet());
+        for (String arg : result) {
+            configBuilder.addPluginArgument(arg);
+        }
+        return result;
+    }
+
+    private VirtualMachine attachToVm(IProgressMonitor monitor, Process process, int port) throws CoreException {
         VirtualMachineManager manager = Bootstrap.virtualMachineManager();
         AttachingConnector connector = null;
         for (Iterator<?> it = manager.attachingConnectors().iterator(); it.hasNext();) {
@@ -336,61 +494,51 @@ public abstract class AbstractLaunchConfigurationDelegate extends AbstractJavaLa
         Map<String, Argument> defaultArguments = connector.defaultArguments();
         defaultArguments.get("hostname").setValue("localhost");
         defaultArguments.get("port").setValue("" + port);
-        int retries = 60;
+        // Retry quickly at first and back off exponentially. The debuggee
+        // usually starts listening within a few hundred milliseconds of being
+        // launched. We can't probe the port with a plain socket since the
+        // JDWP server only accepts a single connection.
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(ATTACH_TIMEOUT);
+        long delay = ATTACH_INITIAL_DELAY;
+        int attempts = 0;
         CoreException exception = null;
-        while (retries > 0) {
+        while (true) {
+            attempts++;
             try {
-                return connector.attach(defaultArguments);
+                VirtualMachine vm = connector.attach(defaultArguments);
+                RoboVMPlugin.consoleInfo("Attached debugger after %d ms (%d attempts)",
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), attempts);
+                return vm;
             } catch (Exception e) {
                 exception = new CoreException(new Status(IStatus.ERROR, RoboVMPlugin.PLUGIN_ID,
                         "Couldn't connect to JDWP server at localhost:" + port, e));
             }
-            try {
-                Thread.sleep(1000);
-            } catch (InterruptedException e) {
-            }
             if (monitor.isCanceled()) {
                 return null;
             }
-            retries--;
-        }
-        throw exception;
-    }
-
-    private Map<String, String> envToMap(String[] envp) throws IOException {
-        if (envp == null) {
-            return Collections.emptyMap();
-        }
-        Map<String, String> result = new HashMap<String, String>();
-        for (int i = 0; i < envp.length; i++) {
-            int index = envp[i].indexOf('=');
-            if (index != -1) {
-                result.put(envp[i].substring(0, index), envp[i].substring(index + 1));
+            if (hasExited(process)) {
+                RoboVMPlugin.consoleError("Process exited before the debugger could attach");
+                throw exception;
             }
+            if (System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay) > deadline) {
+                throw exception;
+            }
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+            }
+            delay = Math.min(delay * 2, ATTACH_MAX_DELAY);
         }
-        return result;
-    }
-
-    private String unquoteArg(String arg) {
-        if (arg.startsWith("\"") && arg.endsWith("\"")) {
-            return arg.substring(1, arg.length() - 1);
-        }
-        return arg;
     }
 
-    private List<String> splitArgs(String args) {
-        if (args == null || args.trim().length() == 0) {
-            return Collections.emptyList();
-        }
-        String[] parts = CommandLine.parse("foo " + args).toStrings();
-        if (parts.length <= 1) {
-            return Collections.emptyList();
-        }
-        List<String> result = new ArrayList<String>(parts.length - 1);
-        for (int i = 1; i < parts.length; i++) {
-            result.add(unquoteArg(parts[i]));
+    private static boolean hasExited(Process process) {
+        try {
+            process.exitValue();
+            return true;
+        } catch (IllegalThreadStateException e) {
+            return false;
         }
-        return result;
     }
 
     public int findFreePort()
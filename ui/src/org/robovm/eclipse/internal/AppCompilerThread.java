@@ -20,31 +20,67 @@ import java.io.IOException;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.robovm.compiler.AppCompiler;
+import org.robovm.compiler.config.Config;
+import org.robovm.eclipse.RoboVMPlugin;
 
 /**
  * {@link Thread} which calls {@link AppCompiler#compile()} and waits for it
- * to finish.
+ * to finish. The {@link IProgressMonitor} is polled every
+ * {@link #POLL_INTERVAL} milliseconds. When it is canceled the
+ * {@link BuildCancellation} token of the build is canceled and the thread is
+ * interrupted. The compiler threads stop as soon as they check the token
+ * through the build's logger.
  */
 public class AppCompilerThread extends Thread {
+    private static final long POLL_INTERVAL = 100;
+    private static final long CANCEL_TIMEOUT = 3000;
+
     protected final AppCompiler compiler;
     protected final IProgressMonitor monitor;
-    private Throwable throwable;
-    
+    private final BuildCancellation cancellation;
+    private volatile Throwable throwable;
+    private long cancelLatency = -1;
+
     public AppCompilerThread(AppCompiler compiler, IProgressMonitor monitor) {
+        this(compiler, monitor, new BuildCancellation());
+    }
+
+    /**
+     * Creates a thread for a compiler whose {@link Config} logs through a
+     * logger returned by {@link BuildCancellation#wrap(org.robovm.compiler.log.Logger)}.
+     */
+    public AppCompilerThread(AppCompiler compiler, IProgressMonitor monitor, BuildCancellation cancellation) {
         super(AppCompilerThread.class.getSimpleName());
         this.compiler = compiler;
         this.monitor = monitor;
+        this.cancellation = cancellation;
+    }
+
+    /**
+     * Returns the number of milliseconds from the cancellation request until
+     * the compiler thread stopped or {@code -1} if the build wasn't canceled.
+     */
+    public long getCancelLatency() {
+        return cancelLatency;
     }
 
     public void compile() throws InterruptedException, IOException {
         start();
         while (isAlive() && !monitor.isCanceled()) {
-            join(3000);
+            join(POLL_INTERVAL);
         }
         if (isAlive() && monitor.isCanceled()) {
+            cancellation.cancel();
             interrupt();
-            join(3000);
+            join(CANCEL_TIMEOUT);
+            cancelLatency = cancellation.getMillisSinceCancel();
+            if (isAlive()) {
+                RoboVMPlugin.consoleWarn("Build still running %d ms after it was canceled", cancelLatency);
+            } else {
+                RoboVMPlugin.consoleDebug("Build stopped %d ms after it was canceled", cancelLatency);
+            }
         }
+        Throwable throwable = this.throwable;
         if (throwable instanceof IOException) {
             throw (IOException) throwable;
         } else if (throwable instanceof RuntimeException) {
@@ -65,7 +101,7 @@ public class AppCompilerThread extends Thread {
         try {
             doCompile();
         } catch (Throwable t) {
-            if (t.getCause() instanceof InterruptedException) {
+            if (BuildCancellation.isCancellation(t)) {
                 // Ignore
                 return;
             }
@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2015 RoboVM AB
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package org.robovm.eclipse.internal;
+
+import java.util.concurrent.TimeUnit;
+
+import org.robovm.compiler.log.Logger;
+
+/**
+ * Cancellation token of a build. The compiler reports every unit of work it
+ * starts through its {@link Logger}, so a logger returned by
+ * {@link #wrap(Logger)} checks the token on every message and aborts the
+ * calling compiler thread by throwing {@link CanceledException} once the
+ * build has been canceled.
+ */
+public class BuildCancellation {
+    private volatile long cancelRequestedNanos = -1;
+
+    /**
+     * Thrown in a compiler thread which checks the token after the build has
+     * been canceled.
+     */
+    public static class CanceledException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public CanceledException() {
+            super("Build canceled");
+        }
+    }
+
+    /**
+     * Requests cancellation. Subsequent calls are ignored.
+     */
+    public synchronized void cancel() {
+        if (cancelRequestedNanos == -1) {
+            cancelRequestedNanos = System.nanoTime();
+        }
+    }
+
+    public boolean isCanceled() {
+        return cancelRequestedNanos != -1;
+    }
+
+    /**
+     * Throws {@link CanceledException} if the build has been canceled.
+     */
+    public void checkCanceled() {
+        if (cancelRequestedNanos != -1) {
+            throw new CanceledException();
+        }
+    }
+
+    /**
+     * Returns the number of milliseconds since cancellation was requested or
+     * {@code -1} if it hasn't been.
+     */
+    public long getMillisSinceCancel() {
+        long t = cancelRequestedNanos;
+        return t != -1 ? TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - t) : -1;
+    }
+
+    /**
+     * Returns {@code true} if the specified {@link Throwable} or any of its
+     * causes signals that a build was canceled or interrupted.
+     */
+    public static boolean isCancellation(Throwable t) {
+        while (t != null) {
+            if (t instanceof CanceledException || t instanceof InterruptedException) {
+                return true;
+            }
+            t = t.getCause();
+        }
+        return false;
+    }
+
+    /**
+     * Wraps the specified {@link Logger} so that every message checks this
+     * token before it is logged.
+     */
+    public Logger wrap(final Logger logger) {
+        return new Logger() {
+            @Override
+            public void info(String format, Object... args) {
+                checkCanceled();
+                logger.info(format, args);
+            }
+
+            @Override
+            public void error(String format, Object... args) {
+                logger.error(format, args);
+            }
+
+            @Override
+            public void warn(String format, Object... args) {
+                checkCanceled();
+                logger.warn(format, args);
+            }
+
+            @Override
+            public void debug(String format, Object... args) {
+                checkCanceled();
+                logger.debug(format, args);
+            }
+        };
+    }
+}
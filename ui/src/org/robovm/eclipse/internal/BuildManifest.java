@@ -0,0 +1,238 @@
+/*
+ * Copyright (C) 2015 RoboVM AB
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package org.robovm.eclipse.internal;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Records the inputs of the last successful build in a launch's build
+ * directory. The next launch compares its own inputs against the recorded ones
+ * and only wipes the directory if an input which affects more than the
+ * compiled classes has changed. Classpath and resource changes are left to the
+ * compiler which recompiles changed classes, relinks and copies the changed
+ * resources. If no input has changed at all the build can be skipped
+ * altogether.
+ */
+public class BuildManifest {
+    public static final String FILE_NAME = ".robovm-build-manifest";
+
+    public static final String ROBOVM_VERSION = "robovm.version";
+    public static final String ROBOVM_HOME = "robovm.home";
+    public static final String OS = "os";
+    public static final String ARCH = "arch";
+    public static final String DEBUG = "debug";
+    public static final String MAIN_CLASS = "mainClass";
+    public static final String PROJECT_CONFIG = "projectConfig";
+    public static final String PLUGIN_ARGUMENTS = "pluginArguments";
+    public static final String BOOTCLASSPATH = "bootclasspath";
+    public static final String CLASSPATH = "classpath";
+    public static final String CLASSPATH_FINGERPRINT = "classpathFingerprint";
+    public static final String RESOURCES_FINGERPRINT = "resourcesFingerprint";
+    public static final String LAUNCH_CONFIGURATION = "launchConfiguration";
+    public static final String FORCE_LINK_CLASSES = "forceLinkClasses";
+
+    /**
+     * Inputs which can change without invalidating the build directory.
+     */
+    private static final Set<String> INCREMENTAL_INPUTS = new HashSet<>(Arrays.asList(CLASSPATH,
+            CLASSPATH_FINGERPRINT, RESOURCES_FINGERPRINT, LAUNCH_CONFIGURATION, FORCE_LINK_CLASSES));
+
+    private final File dir;
+    private final Properties inputs = new Properties();
+
+    public BuildManifest(File dir) {
+        this.dir = dir;
+    }
+
+    public void put(String key, Object value) {
+        inputs.setProperty(key, String.valueOf(value));
+    }
+
+    public void put(String key, Collection<?> values) {
+        StringBuilder sb = new StringBuilder();
+        if (values == null) {
+            values = Collections.emptyList();
+        }
+        for (Object value : values) {
+            if (sb.length() > 0) {
+                sb.append(File.pathSeparatorChar);
+            }
+            sb.append(value);
+        }
+        inputs.setProperty(key, sb.toString());
+    }
+
+    public void put(String key, Object[] values) {
+        put(key, values != null ? Arrays.asList(values) : null);
+    }
+
+    /**
+     * Returns a hash of the contents of the {@code robovm*.xml} and
+     * {@code robovm*.properties} files in the specified project root.
+     */
+    public static String hashProjectConfig(File projectRoot) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("md5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new Error(e);
+        }
+        File[] files = projectRoot.listFiles();
+        if (files != null) {
+            Arrays.sort(files);
+            for (File f : files) {
+                String name = f.getName();
+                if (f.isFile() && name.startsWith("robovm")
+                        && (name.endsWith(".xml") || name.endsWith(".properties"))) {
+                    digest.update(name.getBytes("UTF-8"));
+                    digest.update(FileUtils.readFileToByteArray(f));
+                }
+            }
+        }
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Returns a hex encoded hash of the specified string.
+     */
+    public static String hash(String s) {
+        try {
+            return toHex(MessageDigest.getInstance("md5").digest(s.getBytes("UTF-8")));
+        } catch (NoSuchAlgorithmException | UnsupportedEncodingException e) {
+            throw new Error(e);
+        }
+    }
+
+    /**
+     * Returns the specified bytes as a lower case hex string.
+     */
+    public static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xf, 16));
+            sb.append(Character.forDigit(b & 0xf, 16));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Returns a hash of all inputs. Two manifests with the same fingerprint
+     * describe identical builds.
+     */
+    public String getFingerprint() {
+        StringBuilder sb = new StringBuilder();
+        for (String key : new TreeSet<>(inputs.stringPropertyNames())) {
+            sb.append(key).append('=').append(inputs.getProperty(key)).append('\n');
+        }
+        return hash(sb.toString());
+    }
+
+    public String get(String key) {
+        return inputs.getProperty(key);
+    }
+
+    /**
+     * Returns the names of the inputs which differ between this manifest and
+     * the specified one.
+     */
+    public Set<String> getChangedInputs(BuildManifest other) {
+        Set<String> keys = new TreeSet<>();
+        keys.addAll(inputs.stringPropertyNames());
+        keys.addAll(other.inputs.stringPropertyNames());
+        Set<String> changed = new TreeSet<>();
+        for (String key : keys) {
+            String v1 = inputs.getProperty(key);
+            String v2 = other.inputs.getProperty(key);
+            if (v1 == null ? v2 != null : !v1.equals(v2)) {
+                changed.add(key);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Returns {@code true} if any of the specified changed inputs requires the
+     * build directory to be wiped before building.
+     */
+    public static boolean requiresClean(Set<String> changedInputs) {
+        for (String key : changedInputs) {
+            if (!INCREMENTAL_INPUTS.contains(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void store() throws IOException {
+        OutputStream out = null;
+        try {
+            out = new FileOutputStream(new File(dir, FILE_NAME));
+            inputs.store(out, null);
+        } finally {
+            IOUtils.closeQuietly(out);
+        }
+    }
+
+    /**
+     * Loads the manifest stored in the specified build directory. Returns
+     * {@code null} if there is none or if it cannot be read.
+     */
+    public static BuildManifest load(File dir) {
+        File f = new File(dir, FILE_NAME);
+        if (!f.exists()) {
+            return null;
+        }
+        BuildManifest manifest = new BuildManifest(dir);
+        InputStream in = null;
+        try {
+            in = new FileInputStream(f);
+            manifest.inputs.load(in);
+            return manifest;
+        } catch (IOException e) {
+            return null;
+        } finally {
+            IOUtils.closeQuietly(in);
+        }
+    }
+
+    /**
+     * Deletes the manifest in the specified build directory. Called before a
+     * build starts so that a failed or canceled build is never mistaken for a
+     * successful one.
+     */
+    public static void delete(File dir) {
+        new File(dir, FILE_NAME).delete();
+    }
+}
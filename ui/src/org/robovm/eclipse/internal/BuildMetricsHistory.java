@@ -0,0 +1,307 @@
+/*
+ * Copyright (C) 2015 RoboVM AB
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package org.robovm.eclipse.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.apache.commons.io.FileUtils;
+
+/**
+ * Keeps the {@link LaunchMetrics} of the most recent launches of each launch
+ * configuration during this session.
+ */
+public class BuildMetricsHistory {
+    /**
+     * Maximum number of entries kept per launch configuration.
+     */
+    private static final int MAX_ENTRIES = 50;
+
+    private static final BuildMetricsHistory INSTANCE = new BuildMetricsHistory();
+
+    private final Map<String, LinkedList<Entry>> entries = new TreeMap<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    private BuildMetricsHistory() {
+    }
+
+    public static BuildMetricsHistory getInstance() {
+        return INSTANCE;
+    }
+
+    public interface Listener {
+        void historyChanged();
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    public void add(Entry entry) {
+        synchronized (entries) {
+            LinkedList<Entry> list = entries.get(entry.configurationName);
+            if (list == null) {
+                list = new LinkedList<>();
+                entries.put(entry.configurationName, list);
+            }
+            list.addFirst(entry);
+            if (list.size() > MAX_ENTRIES) {
+                list.removeLast();
+            }
+        }
+        fireChanged();
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+        fireChanged();
+    }
+
+    private void fireChanged() {
+        for (Listener l : listeners) {
+            l.historyChanged();
+        }
+    }
+
+    /**
+     * Returns the names of the launch configurations with recorded launches in
+     * alphabetical order.
+     */
+    public List<String> getConfigurationNames() {
+        synchronized (entries) {
+            return new ArrayList<>(entries.keySet());
+        }
+    }
+
+    /**
+     * Returns the recorded launches of the specified launch configuration,
+     * most recent first.
+     */
+    public List<Entry> getEntries(String configurationName) {
+        synchronized (entries) {
+            LinkedList<Entry> list = entries.get(configurationName);
+            return list != null ? new ArrayList<>(list) : new ArrayList<Entry>();
+        }
+    }
+
+    /**
+     * Returns the number of classes compiled by the most recent full build of
+     * the specified launch configuration or {@code 0} if there is no such
+     * build. Incremental builds are ignored since they only compile the
+     * classes which changed.
+     */
+    public int getExpectedClasses(String configurationName) {
+        for (Entry e : getEntries(configurationName)) {
+            if (e.fullBuild && e.compiledClasses > 0) {
+                return e.compiledClasses;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the whole history as a JSON object keyed by launch
+     * configuration name.
+     */
+    public String toJson() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\n");
+        boolean firstConfig = true;
+        for (String name : getConfigurationNames()) {
+            if (!firstConfig) {
+                sb.append(",\n");
+            }
+            firstConfig = false;
+            sb.append("  ").append(quote(name)).append(": [");
+            boolean firstEntry = true;
+            for (Entry e : getEntries(name)) {
+                sb.append(firstEntry ? "\n" : ",\n");
+                firstEntry = false;
+                sb.append("    {");
+                sb.append("\"start\": ").append(e.startTime);
+                sb.append(", \"mode\": ").append(quote(e.mode));
+                sb.append(", \"target\": ").append(quote(e.target));
+                sb.append(", \"result\": ").append(quote(e.result));
+                sb.append(", \"totalMillis\": ").append(e.totalMillis);
+                sb.append(", \"phases\": {");
+                boolean firstPhase = true;
+                for (Map.Entry<String, Long> p : e.phaseMillis.entrySet()) {
+                    if (!firstPhase) {
+                        sb.append(", ");
+                    }
+                    firstPhase = false;
+                    sb.append(quote(p.getKey())).append(": ").append(p.getValue());
+                }
+                sb.append("}");
+                if (e.compiledClasses >= 0) {
+                    sb.append(", \"compiledClasses\": ").append(e.compiledClasses);
+                    sb.append(", \"fullBuild\": ").append(e.fullBuild);
+                }
+                sb.append(", \"progress\": [");
+                boolean firstEvent = true;
+                for (BuildProgress.Event event : e.progressEvents) {
+                    if (!firstEvent) {
+                        sb.append(", ");
+                    }
+                    firstEvent = false;
+                    sb.append("{\"millis\": ").append(event.getMillis());
+                    sb.append(", \"type\": ").append(quote(event.getType()));
+                    sb.append(", \"count\": ").append(event.getCount()).append("}");
+                }
+                sb.append("]}");
+            }
+            sb.append(firstEntry ? "]" : "\n  ]");
+        }
+        sb.append("\n}\n");
+        return sb.toString();
+    }
+
+    public void exportJson(File file) throws IOException {
+        FileUtils.writeStringToFile(file, toJson(), "UTF-8");
+    }
+
+    private static String quote(String s) {
+        if (s == null) {
+            return "null";
+        }
+        StringBuilder sb = new StringBuilder(s.length() + 2);
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+            case '"':
+                sb.append("\\\"");
+                break;
+            case '\\':
+                sb.append("\\\\");
+                break;
+            case '\n':
+                sb.append("\\n");
+                break;
+            case '\r':
+                sb.append("\\r");
+                break;
+            case '\t':
+                sb.append("\\t");
+                break;
+            default:
+                if (c < 0x20) {
+                    sb.append(String.format("\\u%04x", (int) c));
+                } else {
+                    sb.append(c);
+                }
+            }
+        }
+        sb.append('"');
+        return sb.toString();
+    }
+
+    /**
+     * The metrics of a single launch.
+     */
+    public static class Entry {
+        private final String configurationName;
+        private final String mode;
+        private final String target;
+        private final long startTime;
+        private final long totalMillis;
+        private final String result;
+        private final Map<String, Long> phaseMillis;
+        private final int compiledClasses;
+        private final boolean fullBuild;
+        private final List<BuildProgress.Event> progressEvents;
+
+        Entry(String configurationName, String mode, String target, long startTime, long totalMillis,
+                String result, Map<String, Long> phaseMillis, int compiledClasses, boolean fullBuild,
+                List<BuildProgress.Event> progressEvents) {
+            this.configurationName = configurationName;
+            this.mode = mode;
+            this.target = target;
+            this.startTime = startTime;
+            this.totalMillis = totalMillis;
+            this.result = result;
+            this.phaseMillis = phaseMillis;
+            this.compiledClasses = compiledClasses;
+            this.fullBuild = fullBuild;
+            this.progressEvents = progressEvents;
+        }
+
+        public String getConfigurationName() {
+            return configurationName;
+        }
+
+        public String getMode() {
+            return mode;
+        }
+
+        public String getTarget() {
+            return target;
+        }
+
+        public long getStartTime() {
+            return startTime;
+        }
+
+        public long getTotalMillis() {
+            return totalMillis;
+        }
+
+        public String getResult() {
+            return result;
+        }
+
+        /**
+         * Returns the number of classes compiled or {@code -1} if the launch
+         * didn't build.
+         */
+        public int getCompiledClasses() {
+            return compiledClasses;
+        }
+
+        /**
+         * Returns {@code true} if the launch built into a clean output dir.
+         */
+        public boolean isFullBuild() {
+            return fullBuild;
+        }
+
+        public List<BuildProgress.Event> getProgressEvents() {
+            return progressEvents;
+        }
+
+        /**
+         * Returns the duration in milliseconds of the specified phase or
+         * {@code -1} if the phase didn't run.
+         */
+        public long getPhaseMillis(String phase) {
+            Long l = phaseMillis.get(phase);
+            return l != null ? l : -1;
+        }
+    }
+}
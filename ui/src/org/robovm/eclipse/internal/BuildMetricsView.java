@@ -0,0 +1,219 @@
+/*
+ * Copyright (C) 2015 RoboVM AB
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package org.robovm.eclipse.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.text.DateFormat;
+import java.util.Date;
+
+import org.eclipse.jface.action.Action;
+import org.eclipse.jface.action.IToolBarManager;
+import org.eclipse.jface.dialogs.MessageDialog;
+import org.eclipse.jface.viewers.ITableLabelProvider;
+import org.eclipse.jface.viewers.ITreeContentProvider;
+import org.eclipse.jface.viewers.LabelProvider;
+import org.eclipse.jface.viewers.TreeViewer;
+import org.eclipse.jface.viewers.Viewer;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.FileDialog;
+import org.eclipse.swt.widgets.Tree;
+import org.eclipse.swt.widgets.TreeColumn;
+import org.eclipse.ui.part.ViewPart;
+import org.robovm.eclipse.RoboVMPlugin;
+
+/**
+ * Shows the {@link BuildMetricsHistory}. Launch configurations are shown at the
+ * top level with their recorded launches below them, one column per launch
+ * phase.
+ */
+public class BuildMetricsView extends ViewPart implements BuildMetricsHistory.Listener {
+    public static final String ID = "org.robovm.eclipse.BuildMetricsView";
+
+    private static final int FIXED_COLUMNS = 6;
+
+    private TreeViewer viewer;
+
+    @Override
+    public void createPartControl(Composite parent) {
+        viewer = new TreeViewer(parent, SWT.FULL_SELECTION | SWT.H_SCROLL | SWT.V_SCROLL);
+        Tree tree = viewer.getTree();
+        tree.setHeaderVisible(true);
+        tree.setLinesVisible(true);
+        createColumn(tree, "Launch", 220);
+        createColumn(tree, "Mode", 60);
+        createColumn(tree, "Target", 100);
+        createColumn(tree, "Result", 70);
+        createColumn(tree, "Total", 80);
+        createColumn(tree, "Classes", 70);
+        for (String phase : LaunchMetrics.PHASES) {
+            createColumn(tree, phase, 90);
+        }
+        viewer.setContentProvider(new ContentProvider());
+        viewer.setLabelProvider(new MetricsLabelProvider());
+        viewer.setInput(BuildMetricsHistory.getInstance());
+
+        IToolBarManager toolBar = getViewSite().getActionBars().getToolBarManager();
+        toolBar.add(new Action("Export as JSON...") {
+            @Override
+            public void run() {
+                exportJson();
+            }
+        });
+        toolBar.add(new Action("Clear") {
+            @Override
+            public void run() {
+                BuildMetricsHistory.getInstance().clear();
+            }
+        });
+
+        BuildMetricsHistory.getInstance().addListener(this);
+    }
+
+    private static void createColumn(Tree tree, String text, int width) {
+        TreeColumn column = new TreeColumn(tree, SWT.LEFT);
+        column.setText(text);
+        column.setWidth(width);
+    }
+
+    private void exportJson() {
+        FileDialog dialog = new FileDialog(getSite().getShell(), SWT.SAVE);
+        dialog.setText("Export RoboVM Build Metrics");
+        dialog.setFilterExtensions(new String[] {"*.json"});
+        dialog.setFileName("robovm-build-metrics.json");
+        dialog.setOverwrite(true);
+        String path = dialog.open();
+        if (path == null) {
+            return;
+        }
+        try {
+            BuildMetricsHistory.getInstance().exportJson(new File(path));
+        } catch (IOException e) {
+            RoboVMPlugin.log(e);
+            MessageDialog.openError(getSite().getShell(), "Export failed",
+                    "Failed to export build metrics: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void historyChanged() {
+        if (viewer == null || viewer.getControl().isDisposed()) {
+            return;
+        }
+        viewer.getControl().getDisplay().asyncExec(new Runnable() {
+            @Override
+            public void run() {
+                if (!viewer.getControl().isDisposed()) {
+                    viewer.refresh();
+                    viewer.expandToLevel(2);
+                }
+            }
+        });
+    }
+
+    @Override
+    public void setFocus() {
+        viewer.getControl().setFocus();
+    }
+
+    @Override
+    public void dispose() {
+        BuildMetricsHistory.getInstance().removeListener(this);
+        super.dispose();
+    }
+
+    private static class ContentProvider implements ITreeContentProvider {
+        @Override
+        public Object[] getElements(Object inputElement) {
+            return BuildMetricsHistory.getInstance().getConfigurationNames().toArray();
+        }
+
+        @Override
+        public Object[] getChildren(Object parentElement) {
+            if (parentElement instanceof String) {
+                return BuildMetricsHistory.getInstance().getEntries((String) parentElement).toArray();
+            }
+            return new Object[0];
+        }
+
+        @Override
+        public Object getParent(Object element) {
+            if (element instanceof BuildMetricsHistory.Entry) {
+                return ((BuildMetricsHistory.Entry) element).getConfigurationName();
+            }
+            return null;
+        }
+
+        @Override
+        public boolean hasChildren(Object element) {
+            return element instanceof String;
+        }
+
+        @Override
+        public void inputChanged(Viewer viewer, Object oldInput, Object newInput) {
+        }
+
+        @Override
+        public void dispose() {
+        }
+    }
+
+    private static class MetricsLabelProvider extends LabelProvider implements ITableLabelProvider {
+        private final DateFormat dateFormat = DateFormat.getDateTimeInstance(DateFormat.SHORT, DateFormat.MEDIUM);
+
+        @Override
+        public Image getColumnImage(Object element, int columnIndex) {
+            return null;
+        }
+
+        @Override
+        public String getColumnText(Object element, int columnIndex) {
+            if (element instanceof String) {
+                return columnIndex == 0 ? (String) element : "";
+            }
+            BuildMetricsHistory.Entry entry = (BuildMetricsHistory.Entry) element;
+            switch (columnIndex) {
+            case 0:
+                return dateFormat.format(new Date(entry.getStartTime()));
+            case 1:
+                return entry.getMode();
+            case 2:
+                return entry.getTarget() != null ? entry.getTarget() : "";
+            case 3:
+                return entry.getResult();
+            case 4:
+                return formatMillis(entry.getTotalMillis());
+            case 5:
+                return entry.getCompiledClasses() >= 0 ? Integer.toString(entry.getCompiledClasses()) : "";
+            default:
+                return formatMillis(entry.getPhaseMillis(LaunchMetrics.PHASES[columnIndex - FIXED_COLUMNS]));
+            }
+        }
+
+        private static String formatMillis(long millis) {
+            if (millis < 0) {
+                return "";
+            }
+            if (millis < 1000) {
+                return millis + " ms";
+            }
+            return String.format("%.2f s", millis / 1000.0);
+        }
+    }
+}
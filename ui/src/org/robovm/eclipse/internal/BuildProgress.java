@@ -0,0 +1,219 @@
+/*
+ * Copyright (C) 2015 RoboVM AB
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package org.robovm.eclipse.internal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.SubMonitor;
+import org.robovm.compiler.log.Logger;
+
+/**
+ * Turns the messages the compiler logs while building into progress on an
+ * {@link IProgressMonitor}. Every compiled class advances the monitor. For a
+ * full build the number of classes compiled by the previous full build of the
+ * same launch configuration is used as the expected total to estimate the
+ * remaining time. Incremental builds compile an unknown subset of the classes
+ * so their progress approaches the end of the compile phase without an
+ * estimate. The events of the build are kept so that builds can be compared
+ * in the {@link BuildMetricsHistory}.
+ */
+public class BuildProgress {
+    public static final String COMPILING = "compiling";
+    public static final String LINKING = "linking";
+    public static final String DONE = "done";
+
+    private static final int TOTAL_WORK = 1000;
+    private static final int COMPILE_WORK = 800;
+    /**
+     * Classes compiled at which an unknown total build is shown as half done.
+     */
+    private static final int UNKNOWN_HALF_WAY = 500;
+    /**
+     * Minimum number of milliseconds between updates of the task name and
+     * between recorded {@link #COMPILING} events.
+     */
+    private static final long UPDATE_INTERVAL = 200;
+
+    private final List<Event> events = new ArrayList<>();
+    private SubMonitor monitor;
+    private boolean fullBuild;
+    private int expectedClasses;
+    private long startNanos;
+    private long lastUpdateNanos;
+    private int compiled;
+    private int compileWorked;
+    private boolean linking;
+
+    /**
+     * A progress event. {@code count} is the number of classes compiled so
+     * far for {@link #COMPILING} and {@link #DONE} events and the number of
+     * classes being linked for {@link #LINKING} events.
+     */
+    public static final class Event {
+        private final long millis;
+        private final String type;
+        private final int count;
+
+        private Event(long millis, String type, int count) {
+            this.millis = millis;
+            this.type = type;
+            this.count = count;
+        }
+
+        /**
+         * Returns the number of milliseconds since the build started.
+         */
+        public long getMillis() {
+            return millis;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public int getCount() {
+            return count;
+        }
+    }
+
+    /**
+     * Starts reporting progress to the specified monitor.
+     * 
+     * @param fullBuild whether the build starts from a clean output dir.
+     * @param expectedClasses the number of classes expected to be compiled or
+     *            {@code 0} if unknown.
+     */
+    public synchronized void begin(IProgressMonitor monitor, boolean fullBuild, int expectedClasses) {
+        this.fullBuild = fullBuild;
+        this.expectedClasses = expectedClasses;
+        this.monitor = SubMonitor.convert(monitor, "Building executable", TOTAL_WORK);
+        this.startNanos = System.nanoTime();
+    }
+
+    /**
+     * Ends the build and completes the monitor.
+     */
+    public synchronized void done() {
+        if (monitor != null) {
+            events.add(new Event(elapsedMillis(System.nanoTime()), DONE, compiled));
+            monitor.done();
+            monitor = null;
+        }
+    }
+
+    public synchronized boolean isFullBuild() {
+        return fullBuild;
+    }
+
+    public synchronized int getCompiledClasses() {
+        return compiled;
+    }
+
+    public synchronized List<Event> getEvents() {
+        return Collections.unmodifiableList(new ArrayList<>(events));
+    }
+
+    private long elapsedMillis(long now) {
+        return TimeUnit.NANOSECONDS.toMillis(now - startNanos);
+    }
+
+    private synchronized void classCompiled() {
+        if (monitor == null) {
+            return;
+        }
+        compiled++;
+        int target;
+        if (compiled < expectedClasses) {
+            target = (int) ((long) COMPILE_WORK * compiled / expectedClasses);
+        } else {
+            // Unknown or more than expected. Approach the end of the compile
+            // phase without reaching it.
+            target = (int) ((long) COMPILE_WORK * compiled / (compiled + UNKNOWN_HALF_WAY));
+        }
+        if (target > compileWorked) {
+            monitor.worked(target - compileWorked);
+            compileWorked = target;
+        }
+
+        long now = System.nanoTime();
+        if (now - lastUpdateNanos >= TimeUnit.MILLISECONDS.toNanos(UPDATE_INTERVAL)) {
+            lastUpdateNanos = now;
+            long millis = elapsedMillis(now);
+            events.add(new Event(millis, COMPILING, compiled));
+            monitor.subTask(describeCompiling(millis));
+        }
+    }
+
+    private String describeCompiling(long millis) {
+        double rate = millis > 0 ? compiled * 1000.0 / millis : 0;
+        if (compiled < expectedClasses && rate > 0) {
+            long secondsLeft = (long) Math.ceil((expectedClasses - compiled) / rate);
+            return String.format("Compiled %d of about %d classes (%.0f classes/s, about %d s left)",
+                    compiled, expectedClasses, rate, secondsLeft);
+        }
+        return String.format("Compiled %d classes (%.0f classes/s)", compiled, rate);
+    }
+
+    private synchronized void linkingStarted(Object[] args) {
+        if (monitor == null || linking) {
+            return;
+        }
+        linking = true;
+        int count = args != null && args.length > 0 && args[0] instanceof Number ? ((Number) args[0]).intValue() : 0;
+        events.add(new Event(elapsedMillis(System.nanoTime()), LINKING, count));
+        monitor.worked(COMPILE_WORK - compileWorked);
+        compileWorked = COMPILE_WORK;
+        monitor.subTask(count > 0 ? "Linking " + count + " classes" : "Linking");
+    }
+
+    /**
+     * Wraps the specified {@link Logger} and updates the progress from the
+     * messages logged by the compiler.
+     */
+    public Logger wrap(final Logger logger) {
+        return new Logger() {
+            @Override
+            public void info(String format, Object... args) {
+                if (format.startsWith("Compiling %s")) {
+                    classCompiled();
+                } else if (format.startsWith("Linking")) {
+                    linkingStarted(args);
+                }
+                logger.info(format, args);
+            }
+
+            @Override
+            public void error(String format, Object... args) {
+                logger.error(format, args);
+            }
+
+            @Override
+            public void warn(String format, Object... args) {
+                logger.warn(format, args);
+            }
+
+            @Override
+            public void debug(String format, Object... args) {
+                logger.debug(format, args);
+            }
+        };
+    }
+}
@@ -0,0 +1,276 @@
+/*
+ * Copyright (C) 2015 RoboVM AB
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package org.robovm.eclipse.internal;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.Map;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.robovm.eclipse.RoboVMPlugin;
+
+/**
+ * Schedules the builds of all launches and IPA packaging. Builds of the same
+ * project run one after another since they share the project's build
+ * directory, while builds of different projects run in parallel. The
+ * available cores ({@code robovm.build.cores}, by default all of them) are
+ * shared between the projects which are building. A build which runs alone
+ * gets all of them. The thread count of a running build can't be reduced, so
+ * a build of another project which arrives while a build holds more than its
+ * share starts right away with its own share, temporarily using more threads
+ * than there are cores, rather than waiting. A build request which is
+ * identical to a build already running, i.e. has the same output directory
+ * and build inputs, waits for that build and then finds its output up to
+ * date instead of compiling it again.
+ * <p>
+ * Background builds {@link #acquireBackground(String, IProgressMonitor)} a
+ * ticket which only runs when no launch is building, uses at most
+ * {@link #BACKGROUND_THREADS} threads and is canceled through its monitor as
+ * soon as a launch asks for a ticket.
+ * <p>
+ * Callers {@link #acquire(String, File, String, IProgressMonitor)} a
+ * {@link Ticket} before building and must {@link Ticket#release()} it when
+ * done.
+ */
+public class BuildScheduler {
+    private static final int BUDGET = Math.max(1,
+            Integer.getInteger("robovm.build.cores", Runtime.getRuntime().availableProcessors()));
+    private static final long POLL_INTERVAL = 100;
+    /**
+     * Maximum number of threads granted to a background build.
+     */
+    private static final int BACKGROUND_THREADS = 1;
+
+    private static final BuildScheduler INSTANCE = new BuildScheduler();
+
+    /**
+     * Queued and running tickets per project. The head of each queue is the
+     * ticket which runs next or is running.
+     */
+    private final Map<String, LinkedList<Ticket>> queues = new HashMap<>();
+    /**
+     * Tickets by output directory and build inputs.
+     */
+    private final Map<String, Ticket> requests = new HashMap<>();
+    private int usedThreads = 0;
+    /**
+     * Number of queued and running tickets which aren't background tickets.
+     */
+    private int foregroundTickets = 0;
+
+    private BuildScheduler() {
+    }
+
+    public static BuildScheduler getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Permission to run a build using {@link #getThreads()} compiler threads.
+     */
+    public class Ticket {
+        private final String project;
+        private final String requestKey;
+        private final IProgressMonitor monitor;
+        private final boolean background;
+        private int threads;
+        private boolean running;
+        private boolean released;
+
+        private Ticket(String project, String requestKey, IProgressMonitor monitor, boolean background) {
+            this.project = project;
+            this.requestKey = requestKey;
+            this.monitor = monitor;
+            this.background = background;
+        }
+
+        /**
+         * Returns the number of threads the build may use.
+         */
+        public int getThreads() {
+            return threads;
+        }
+
+        /**
+         * Ends the build and lets the next build of the same project start.
+         * Subsequent calls are ignored.
+         */
+        public void release() {
+            synchronized (BuildScheduler.this) {
+                if (released) {
+                    return;
+                }
+                released = true;
+                if (running) {
+                    usedThreads -= threads;
+                }
+                dequeue(this);
+                BuildScheduler.this.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Waits until a build of the specified project into {@code outputDir} may
+     * start.
+     * 
+     * @param project the name of the project being built.
+     * @param outputDir the directory the build writes to.
+     * @param fingerprint identifies the inputs of the build or {@code null}
+     *            if the build should never be merged with another one.
+     * @param monitor polled for cancellation while waiting. May be
+     *            {@code null}.
+     * @return the {@link Ticket} or {@code null} if the monitor was canceled
+     *         while waiting.
+     */
+    public synchronized Ticket acquire(String project, File outputDir, String fingerprint, IProgressMonitor monitor)
+            throws InterruptedException {
+
+        String requestKey = fingerprint != null ? outputDir.getAbsolutePath() + "#" + fingerprint : null;
+        if (requestKey != null) {
+            Ticket identical = requests.get(requestKey);
+            if (identical != null) {
+                RoboVMPlugin.consoleInfo("Waiting for an identical build of %s to finish", project);
+                while (!identical.released) {
+                    if (monitor != null && monitor.isCanceled()) {
+                        return null;
+                    }
+                    wait(POLL_INTERVAL);
+                }
+            }
+        }
+
+        Ticket ticket = enqueue(new Ticket(project, requestKey, monitor, false));
+        preemptBackground();
+
+        boolean waiting = false;
+        while (true) {
+            if (monitor != null && monitor.isCanceled()) {
+                ticket.release();
+                return null;
+            }
+            if (queues.get(project).getFirst() == ticket) {
+                // Share the cores between the projects with pending builds. A
+                // lone build gets all of them.
+                int share = Math.max(1, BUDGET / queues.size());
+                int free = BUDGET - usedThreads;
+                if (free > 0 || usedThreads == 0 || isRunningOverShare(share)) {
+                    int threads = free > 0 ? Math.min(share, free) : share;
+                    ticket.threads = threads;
+                    ticket.running = true;
+                    usedThreads += threads;
+                    return ticket;
+                }
+            }
+            if (!waiting) {
+                waiting = true;
+                RoboVMPlugin.consoleInfo("Waiting for other builds to finish before building %s", project);
+            }
+            wait(POLL_INTERVAL);
+        }
+    }
+
+    /**
+     * Waits until a background build of the specified project may start.
+     * 
+     * @param project the name of the project being built.
+     * @param monitor polled for cancellation while waiting and canceled when
+     *            a launch asks for a ticket.
+     * @return the {@link Ticket} or {@code null} if the monitor was canceled
+     *         while waiting.
+     */
+    public synchronized Ticket acquireBackground(String project, IProgressMonitor monitor)
+            throws InterruptedException {
+
+        Ticket ticket = enqueue(new Ticket(project, null, monitor, true));
+        while (true) {
+            if (monitor.isCanceled()) {
+                ticket.release();
+                return null;
+            }
+            int free = BUDGET - usedThreads;
+            if (foregroundTickets == 0 && free > 0 && queues.get(project).getFirst() == ticket) {
+                ticket.threads = Math.min(BACKGROUND_THREADS, free);
+                ticket.running = true;
+                usedThreads += ticket.threads;
+                return ticket;
+            }
+            wait(POLL_INTERVAL);
+        }
+    }
+
+    /**
+     * Returns {@code true} if a running build was granted more than the
+     * specified share of the cores, e.g. because it started while no other
+     * project was building.
+     */
+    private boolean isRunningOverShare(int share) {
+        for (LinkedList<Ticket> queue : queues.values()) {
+            Ticket head = queue.getFirst();
+            if (head.running && head.threads > share) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Ticket enqueue(Ticket ticket) {
+        LinkedList<Ticket> queue = queues.get(ticket.project);
+        if (queue == null) {
+            queue = new LinkedList<>();
+            queues.put(ticket.project, queue);
+        }
+        queue.add(ticket);
+        if (!ticket.background) {
+            foregroundTickets++;
+        }
+        if (ticket.requestKey != null && !requests.containsKey(ticket.requestKey)) {
+            requests.put(ticket.requestKey, ticket);
+        }
+        return ticket;
+    }
+
+    /**
+     * Cancels all queued and running background builds.
+     */
+    private void preemptBackground() {
+        for (LinkedList<Ticket> queue : queues.values()) {
+            for (Ticket t : queue) {
+                if (t.background && !t.monitor.isCanceled()) {
+                    t.monitor.setCanceled(true);
+                }
+            }
+        }
+    }
+
+    private void dequeue(Ticket ticket) {
+        if (!ticket.background) {
+            foregroundTickets--;
+        }
+        LinkedList<Ticket> queue = queues.get(ticket.project);
+        if (queue != null) {
+            queue.remove(ticket);
+            if (queue.isEmpty()) {
+                queues.remove(ticket.project);
+            }
+        }
+        if (ticket.requestKey != null && requests.get(ticket.requestKey) == ticket) {
+            requests.remove(ticket.requestKey);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2015 RoboVM AB
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package org.robovm.eclipse.internal;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+import org.robovm.eclipse.RoboVMPlugin;
+
+/**
+ * Single JDT listener which tells the classpath caches when the classpath of a
+ * Java project in the workspace may have changed, i.e. when a project is
+ * added, removed, opened or closed or when its raw or resolved classpath
+ * changes.
+ */
+public class ClasspathChangeListener implements IElementChangedListener {
+
+    private static final ClasspathChangeListener INSTANCE = new ClasspathChangeListener();
+
+    private static final int CLASSPATH_FLAGS = IJavaElementDelta.F_CLASSPATH_CHANGED
+            | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED | IJavaElementDelta.F_OPENED
+            | IJavaElementDelta.F_CLOSED;
+
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private boolean started = false;
+
+    /**
+     * Notified when the classpath of a project may have changed.
+     */
+    public interface Listener {
+        void classpathChanged(IJavaProject javaProject);
+    }
+
+    private ClasspathChangeListener() {
+    }
+
+    public static ClasspathChangeListener getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Adds the specified {@link Listener} and starts listening to JDT if this
+     * is the first one.
+     */
+    public synchronized void addListener(Listener listener) {
+        listeners.add(listener);
+        if (!started) {
+            JavaCore.addElementChangedListener(this, ElementChangedEvent.POST_CHANGE);
+            started = true;
+        }
+    }
+
+    @Override
+    public void elementChanged(ElementChangedEvent event) {
+        try {
+            visit(event.getDelta());
+        } catch (Throwable t) {
+            RoboVMPlugin.log(t);
+        }
+    }
+
+    private void visit(IJavaElementDelta delta) {
+        IJavaElement element = delta.getElement();
+        switch (element.getElementType()) {
+        case IJavaElement.JAVA_MODEL:
+            for (IJavaElementDelta child : delta.getAffectedChildren()) {
+                visit(child);
+            }
+            break;
+        case IJavaElement.JAVA_PROJECT:
+            if (delta.getKind() != IJavaElementDelta.CHANGED || (delta.getFlags() & CLASSPATH_FLAGS) != 0) {
+                for (Listener listener : listeners) {
+                    try {
+                        listener.classpathChanged((IJavaProject) element);
+                    } catch (Throwable t) {
+                        RoboVMPlugin.log(t);
+                    }
+                }
+            }
+            break;
+        default:
+            break;
+        }
+    }
+}
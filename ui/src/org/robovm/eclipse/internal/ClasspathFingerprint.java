@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2015 RoboVM AB
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package org.robovm.eclipse.internal;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Computes a fingerprint of the files on a classpath. Only file metadata (path,
+ * size and modification time) is hashed, never file contents, and classpath
+ * entries are walked in parallel. This keeps the cost of fingerprinting a
+ * large classpath in the order of milliseconds.
+ */
+public class ClasspathFingerprint {
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private static final ExecutorService executor = Executors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors(), new ThreadFactory() {
+                private final AtomicInteger counter = new AtomicInteger();
+
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread t = new Thread(r, ClasspathFingerprint.class.getSimpleName() + "-"
+                            + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+
+    /**
+     * Returns a hex encoded fingerprint of the specified classpath entries.
+     * Entries may be jar files or class folders. Entries which don't exist
+     * contribute only their path to the fingerprint.
+     */
+    public static String compute(String... entries) throws IOException {
+        List<Future<byte[]>> futures = new ArrayList<>(entries.length);
+        for (final String entry : entries) {
+            futures.add(executor.submit(new Callable<byte[]>() {
+                @Override
+                public byte[] call() throws Exception {
+                    return fingerprint(Paths.get(entry));
+                }
+            }));
+        }
+        MessageDigest digest = newDigest();
+        try {
+            for (Future<byte[]> f : futures) {
+                digest.update(f.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+        return BuildManifest.toHex(digest.digest());
+    }
+
+    private static byte[] fingerprint(Path entry) throws IOException {
+        MessageDigest digest = newDigest();
+        digest.update(entry.toString().getBytes(UTF8));
+        BasicFileAttributes attrs;
+        try {
+            attrs = Files.readAttributes(entry, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        } catch (NoSuchFileException e) {
+            return digest.digest();
+        }
+        if (!attrs.isDirectory()) {
+            update(digest, "", attrs);
+            return digest.digest();
+        }
+
+        final Path root = entry;
+        final List<String> files = new ArrayList<>();
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                files.add(root.relativize(file) + "|" + attrs.size() + "|"
+                        + attrs.lastModifiedTime().toMillis());
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        // Directory iteration order is file system dependent.
+        Collections.sort(files);
+        for (String s : files) {
+            digest.update(s.getBytes(UTF8));
+        }
+        return digest.digest();
+    }
+
+    private static void update(MessageDigest digest, String name, BasicFileAttributes attrs) {
+        digest.update((name + "|" + attrs.size() + "|" + attrs.lastModifiedTime().toMillis()).getBytes(UTF8));
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("md5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new Error(e);
+        }
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright (C) 2015 RoboVM AB
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package org.robovm.eclipse.internal;
+
+import java.text.DateFormat;
+import java.util.Date;
+import java.util.IllegalFormatException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import org.eclipse.ui.console.MessageConsoleStream;
+
+/**
+ * Writes log messages to the RoboVM console without making the logging thread
+ * wait for the console. Messages are put on a bounded lock-free queue and a
+ * single drainer thread formats them and writes them to the console streams
+ * in batches. When the queue is full new debug and info messages are dropped
+ * and the number of dropped messages is reported once the drainer has caught
+ * up. Warnings and errors are always queued.
+ */
+public class ConsoleAppender {
+    public static final int DEBUG = 0;
+    public static final int INFO = 1;
+    public static final int WARN = 2;
+    public static final int ERROR = 3;
+
+    private static final String[] PREFIXES = {": [DEBUG] ", ": [ INFO] ", ": [ WARN] ", ": [ERROR] "};
+
+    /**
+     * Maximum number of messages waiting to be written before debug and info
+     * messages are dropped.
+     */
+    private static final int CAPACITY = Integer.getInteger("robovm.console.capacity", 10000);
+
+    /**
+     * Maximum number of messages written to the console in one batch.
+     */
+    private static final int BATCH_SIZE = 256;
+
+    private final MessageConsoleStream[] streams;
+    private final Listener listener;
+    private final ConcurrentLinkedQueue<Entry> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicInteger dropped = new AtomicInteger();
+    private final AtomicBoolean waiting = new AtomicBoolean();
+    private final DateFormat dateFormat = DateFormat.getDateTimeInstance(DateFormat.SHORT, DateFormat.MEDIUM);
+    private final Thread drainer;
+    private volatile boolean debugEnabled = true;
+    private volatile boolean stopped = false;
+
+    /**
+     * Notified by the drainer thread after messages have been written.
+     */
+    public interface Listener {
+        /**
+         * @param highestLevel the highest level of the messages just written.
+         */
+        void written(int highestLevel);
+    }
+
+    public ConsoleAppender(MessageConsoleStream debugStream, MessageConsoleStream infoStream,
+            MessageConsoleStream warnStream, MessageConsoleStream errorStream, Listener listener) {
+        this.streams = new MessageConsoleStream[] {debugStream, infoStream, warnStream, errorStream};
+        this.listener = listener;
+        this.drainer = new Thread("RoboVM console appender") {
+            @Override
+            public void run() {
+                drain();
+            }
+        };
+        this.drainer.setDaemon(true);
+    }
+
+    public void start() {
+        drainer.start();
+    }
+
+    /**
+     * Stops the drainer thread once all queued messages have been written.
+     */
+    public void stop() {
+        stopped = true;
+        LockSupport.unpark(drainer);
+    }
+
+    public boolean isDebugEnabled() {
+        return debugEnabled;
+    }
+
+    public void setDebugEnabled(boolean debugEnabled) {
+        this.debugEnabled = debugEnabled;
+    }
+
+    /**
+     * Queues a message. Formatting is deferred to the drainer thread so
+     * arguments must not be modified after they have been passed here.
+     */
+    public void append(int level, String format, Object... args) {
+        if (level == DEBUG && !debugEnabled || stopped) {
+            return;
+        }
+        if (size.incrementAndGet() > CAPACITY && level < WARN) {
+            size.decrementAndGet();
+            dropped.incrementAndGet();
+            return;
+        }
+        queue.offer(new Entry(level, System.currentTimeMillis(), format, args));
+        if (waiting.compareAndSet(true, false)) {
+            LockSupport.unpark(drainer);
+        }
+    }
+
+    private void drain() {
+        StringBuilder sb = new StringBuilder();
+        while (true) {
+            Entry entry = queue.poll();
+            if (entry == null) {
+                if (stopped) {
+                    return;
+                }
+                waiting.set(true);
+                // Recheck after publishing that we are about to park to not
+                // miss an entry offered in between.
+                if (queue.isEmpty() && !stopped) {
+                    LockSupport.park(this);
+                }
+                waiting.set(false);
+                continue;
+            }
+
+            int highestLevel = -1;
+            int count = 0;
+            int level = entry.level;
+            while (entry != null) {
+                size.decrementAndGet();
+                if (entry.level != level) {
+                    write(level, sb);
+                    level = entry.level;
+                }
+                sb.append(dateFormat.format(new Date(entry.time))).append(PREFIXES[level])
+                        .append(format(entry.format, entry.args)).append('\n');
+                highestLevel = Math.max(highestLevel, level);
+                if (++count == BATCH_SIZE) {
+                    break;
+                }
+                entry = queue.poll();
+            }
+            write(level, sb);
+
+            int n = dropped.getAndSet(0);
+            if (n > 0) {
+                sb.append(dateFormat.format(new Date())).append(PREFIXES[WARN])
+                        .append(n).append(" console message(s) dropped\n");
+                write(WARN, sb);
+                highestLevel = Math.max(highestLevel, WARN);
+            }
+
+            if (listener != null) {
+                try {
+                    listener.written(highestLevel);
+                } catch (Throwable t) {
+                    // Never let the listener kill the drainer
+                }
+            }
+        }
+    }
+
+    private void write(int level, StringBuilder sb) {
+        if (sb.length() > 0) {
+            streams[level].print(sb.toString());
+            sb.setLength(0);
+        }
+    }
+
+    private static String format(String format, Object[] args) {
+        try {
+            return String.format(format, args);
+        } catch (IllegalFormatException e) {
+            return format;
+        }
+    }
+
+    private static final class Entry {
+        final int level;
+        final long time;
+        final String format;
+        final Object[] args;
+
+        Entry(int level, long time, String format, Object[] args) {
+            this.level = level;
+            this.time = time;
+            this.format = format;
+            this.args = args;
+        }
+    }
+}
@@ -0,0 +1,289 @@
+/*
+ * Copyright (C) 2015 RoboVM AB
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package org.robovm.eclipse.internal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.robovm.compiler.target.ios.DeviceType;
+import org.robovm.compiler.target.ios.DeviceType.DeviceFamily;
+import org.robovm.eclipse.RoboVMPlugin;
+
+/**
+ * Keeps the simulator device types available on this machine. The device
+ * types are loaded in the background and reused for
+ * {@code robovm.ios.deviceTypesTtl} milliseconds. After that the cached device
+ * types are still returned while a reload runs in the background. Only the
+ * very first lookup blocks, and callers on the UI thread can avoid that
+ * through {@link #getDeviceTypesIfLoaded()} and {@link #runWhenLoaded(Runnable)}.
+ * Each load lists the device types once and picks the preferred device types
+ * from that list.
+ */
+public class DeviceTypeCatalog {
+
+    /**
+     * Number of milliseconds a loaded list of device types is considered
+     * current.
+     */
+    private static final long TTL = Long.getLong("robovm.ios.deviceTypesTtl", TimeUnit.MINUTES.toMillis(10));
+
+    private static final String DEFAULT_IPHONE = "com.apple.CoreSimulator.SimDeviceType.iPhone-6";
+    private static final String DEFAULT_IPAD = "com.apple.CoreSimulator.SimDeviceType.iPad-Air";
+
+    private static DeviceTypeCatalog instance;
+
+    private final Provider provider;
+    private final Object loadLock = new Object();
+    private volatile Snapshot snapshot;
+    private List<Runnable> listeners = new ArrayList<>();
+
+    private final Job loadJob = new Job("Loading iOS simulator device types") {
+        @Override
+        protected IStatus run(IProgressMonitor monitor) {
+            try {
+                reload();
+            } catch (Throwable t) {
+                RoboVMPlugin.log(t);
+            }
+            return Status.OK_STATUS;
+        }
+    };
+
+    /**
+     * Lists the device types.
+     */
+    public interface Provider {
+        List<DeviceType> listDeviceTypes();
+    }
+
+    private static final class Snapshot {
+        private final List<DeviceType> deviceTypes;
+        private final DeviceType best;
+        private final Map<DeviceFamily, DeviceType> bestByFamily;
+        private final long loadTime;
+
+        private Snapshot(List<DeviceType> deviceTypes, DeviceType best, Map<DeviceFamily, DeviceType> bestByFamily) {
+            this.deviceTypes = Collections.unmodifiableList(new ArrayList<>(deviceTypes));
+            this.best = best;
+            this.bestByFamily = bestByFamily;
+            this.loadTime = System.currentTimeMillis();
+        }
+    }
+
+    public DeviceTypeCatalog(Provider provider) {
+        this.provider = provider;
+        loadJob.setSystem(true);
+        loadJob.setPriority(Job.SHORT);
+    }
+
+    public static synchronized DeviceTypeCatalog getInstance() {
+        if (instance == null) {
+            instance = new DeviceTypeCatalog(new Provider() {
+                @Override
+                public List<DeviceType> listDeviceTypes() {
+                    return DeviceType.listDeviceTypes();
+                }
+            });
+        }
+        return instance;
+    }
+
+    /**
+     * Schedules the initial load.
+     */
+    public void start() {
+        loadJob.schedule();
+    }
+
+    /**
+     * Returns the device types. Blocks if no device types have been loaded
+     * yet.
+     */
+    public List<DeviceType> getDeviceTypes() {
+        return getSnapshot().deviceTypes;
+    }
+
+    /**
+     * Returns the device types or {@code null} if they haven't been loaded
+     * yet. Never blocks.
+     */
+    public List<DeviceType> getDeviceTypesIfLoaded() {
+        Snapshot s = snapshot;
+        if (s == null) {
+            loadJob.schedule();
+            return null;
+        }
+        checkExpired(s);
+        return s.deviceTypes;
+    }
+
+    /**
+     * Runs the specified {@link Runnable} once device types have been loaded.
+     * Runs it immediately in the calling thread if they already have.
+     */
+    public void runWhenLoaded(Runnable r) {
+        synchronized (loadLock) {
+            if (snapshot == null) {
+                listeners.add(r);
+                loadJob.schedule();
+                return;
+            }
+        }
+        r.run();
+    }
+
+    /**
+     * Returns the device type with the specified id or {@code null} if there
+     * is no such device type. Reloads once if none matches since the device
+     * type may have been added since the last load. The reload runs simctl so
+     * this must not be called from the UI thread.
+     */
+    public DeviceType getDeviceType(String id) {
+        if (id == null) {
+            return null;
+        }
+        DeviceType type = find(getDeviceTypes(), id);
+        if (type == null) {
+            synchronized (loadLock) {
+                type = find(load().deviceTypes, id);
+            }
+        }
+        return type;
+    }
+
+    /**
+     * Like {@link #getDeviceType(String)} but never reloads in the calling
+     * thread. A miss schedules a reload in the background instead. Only
+     * blocks if no device types have been loaded yet. Use this from the UI
+     * thread.
+     */
+    public DeviceType findDeviceType(String id) {
+        if (id == null) {
+            return null;
+        }
+        DeviceType type = find(getDeviceTypes(), id);
+        if (type == null) {
+            loadJob.schedule();
+        }
+        return type;
+    }
+
+    private static DeviceType find(List<DeviceType> types, String id) {
+        for (DeviceType type : types) {
+            if (id.equals(type.getDeviceTypeId()) || id.equals(type.getSimpleDeviceTypeId())) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Picks the preferred device type of the specified family, or of any
+     * family if {@code family} is {@code null}, from the specified list. Like
+     * {@link DeviceType#getBestDeviceType(DeviceFamily)} this is the device
+     * type with the newest SDK, preferring the default iPhone or iPad model.
+     */
+    private static DeviceType selectBestDeviceType(List<DeviceType> types, DeviceFamily family) {
+        String defaultId = family == DeviceFamily.iPad ? DEFAULT_IPAD : DEFAULT_IPHONE;
+        DeviceType best = null;
+        DeviceType bestDefault = null;
+        for (DeviceType type : types) {
+            if (family != null && type.getFamily() != family) {
+                continue;
+            }
+            if (best == null || type.getSdk().compareTo(best.getSdk()) > 0) {
+                best = type;
+            }
+            if (defaultId.equals(type.getDeviceTypeId())
+                    && (bestDefault == null || type.getSdk().compareTo(bestDefault.getSdk()) > 0)) {
+                bestDefault = type;
+            }
+        }
+        return bestDefault != null ? bestDefault : best;
+    }
+
+    public DeviceType getBestDeviceType() {
+        return getSnapshot().best;
+    }
+
+    public DeviceType getBestDeviceType(DeviceFamily family) {
+        return getSnapshot().bestByFamily.get(family);
+    }
+
+    private Snapshot getSnapshot() {
+        Snapshot s = snapshot;
+        if (s == null) {
+            synchronized (loadLock) {
+                s = snapshot;
+                if (s == null) {
+                    s = load();
+                }
+            }
+        } else {
+            checkExpired(s);
+        }
+        return s;
+    }
+
+    private void checkExpired(Snapshot s) {
+        if (System.currentTimeMillis() - s.loadTime > TTL) {
+            loadJob.schedule();
+        }
+    }
+
+    private void reload() {
+        synchronized (loadLock) {
+            load();
+        }
+    }
+
+    /**
+     * Loads the device types and notifies the listeners waiting for the
+     * first load. Must be called with {@link #loadLock} held.
+     */
+    private Snapshot load() {
+        long start = System.nanoTime();
+        List<DeviceType> types = provider.listDeviceTypes();
+        Map<DeviceFamily, DeviceType> bestByFamily = new EnumMap<>(DeviceFamily.class);
+        for (DeviceFamily family : DeviceFamily.values()) {
+            bestByFamily.put(family, selectBestDeviceType(types, family));
+        }
+        Snapshot s = new Snapshot(types, selectBestDeviceType(types, null), bestByFamily);
+        snapshot = s;
+        RoboVMPlugin.consoleDebug("Loaded %d iOS simulator device types in %d ms", s.deviceTypes.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+        List<Runnable> l = listeners;
+        listeners = new ArrayList<>();
+        for (Runnable r : l) {
+            try {
+                r.run();
+            } catch (Throwable t) {
+                RoboVMPlugin.log(t);
+            }
+        }
+        return s;
+    }
+}
@@ -24,8 +24,6 @@ import org.robovm.compiler.config.Arch;
 import org.robovm.compiler.config.Config;
 import org.robovm.compiler.config.OS;
 import org.robovm.compiler.target.ios.IOSTarget;
-import org.robovm.compiler.target.ios.ProvisioningProfile;
-import org.robovm.compiler.target.ios.SigningIdentity;
 import org.robovm.eclipse.RoboVMPlugin;
 
 /**
@@ -62,6 +60,14 @@ public class IOSDeviceLaunchConfigurationDelegate extends AbstractLaunchConfigur
         return OS.ios;
     }
     
+    @Override
+    protected void addBuildInputs(BuildManifest manifest, ILaunchConfiguration configuration, String mode)
+            throws CoreException {
+
+        manifest.put(BuildManifest.LAUNCH_CONFIGURATION, hashAttributes(configuration,
+                ATTR_IOS_DEVICE_SIGNING_ID, ATTR_IOS_DEVICE_PROVISIONING_PROFILE));
+    }
+
     @Override
     protected Config.Builder configure(Config.Builder configBuilder,
             ILaunchConfiguration configuration, String mode) throws IOException, CoreException {
@@ -73,10 +79,10 @@ public class IOSDeviceLaunchConfigurationDelegate extends AbstractLaunchConfigur
             configBuilder.iosSkipSigning(true);
         } else {
             if (signingId != null) {
-                configBuilder.iosSignIdentity(SigningIdentity.find(SigningIdentity.list(), signingId));
+                configBuilder.iosSignIdentity(SigningCatalog.getInstance().findSigningIdentity(signingId));
             }
             if (profile != null) {
-                configBuilder.iosProvisioningProfile(ProvisioningProfile.find(ProvisioningProfile.list(), profile));
+                configBuilder.iosProvisioningProfile(SigningCatalog.getInstance().findProvisioningProfile(profile));
             }
         }
         
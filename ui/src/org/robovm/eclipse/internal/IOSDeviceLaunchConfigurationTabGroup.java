@@ -163,8 +163,8 @@ public class IOSDeviceLaunchConfigurationTabGroup extends AbstractLaunchConfigur
         public void initializeFrom(ILaunchConfiguration config) {
             super.initializeFrom(config);
 
-            signingIdentities = SigningIdentity.list();
-            provisioningProfiles = ProvisioningProfile.list();
+            signingIdentities = SigningCatalog.getInstance().getSigningIdentities();
+            provisioningProfiles = SigningCatalog.getInstance().getProvisioningProfiles();
             signingIdCombo.setItems(readSigningIdentities());
             signingIdCombo.select(0);
             profileCombo.setItems(readProvisioningProfiles());
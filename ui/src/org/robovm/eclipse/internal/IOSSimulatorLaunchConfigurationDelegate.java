@@ -24,7 +24,6 @@ import org.robovm.compiler.config.Arch;
 import org.robovm.compiler.config.Config;
 import org.robovm.compiler.config.OS;
 import org.robovm.compiler.target.LaunchParameters;
-import org.robovm.compiler.target.ios.DeviceType;
 import org.robovm.compiler.target.ios.IOSSimulatorLaunchParameters;
 import org.robovm.compiler.target.ios.IOSTarget;
 import org.robovm.eclipse.RoboVMPlugin;
@@ -71,7 +70,7 @@ public class IOSSimulatorLaunchConfigurationDelegate extends AbstractLaunchConfi
         IOSSimulatorLaunchParameters lp = (IOSSimulatorLaunchParameters) launchParameters;
         String deviceTypeId = configuration.getAttribute(ATTR_IOS_SIM_DEVICE_TYPE, (String) null);
         if (deviceTypeId != null) {
-            lp.setDeviceType(DeviceType.getDeviceType(deviceTypeId));
+            lp.setDeviceType(DeviceTypeCatalog.getInstance().getDeviceType(deviceTypeId));
         }
     }
 }
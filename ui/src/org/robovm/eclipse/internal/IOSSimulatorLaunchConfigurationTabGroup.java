@@ -35,6 +35,7 @@ import org.eclipse.swt.layout.GridData;
 import org.eclipse.swt.layout.GridLayout;
 import org.eclipse.swt.widgets.Combo;
 import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Group;
 import org.eclipse.swt.widgets.Label;
 import org.robovm.compiler.config.Arch;
@@ -67,6 +68,8 @@ public class IOSSimulatorLaunchConfigurationTabGroup extends AbstractLaunchConfi
 
         private Combo deviceTypeCombo;
         private Combo archCombo;
+        private List<DeviceType> deviceTypes;
+        private String deviceTypeId;
 
         public SimulatorTab() {
             this(true);
@@ -100,20 +103,14 @@ public class IOSSimulatorLaunchConfigurationTabGroup extends AbstractLaunchConfi
             typeLabel.setText("Device type:");
             typeLabel.setLayoutData(new GridData(GridData.BEGINNING, GridData.CENTER, false, false));
 
-            final List<DeviceType> types = DeviceType.listDeviceTypes();
-            String[] deviceDisplayNames = new String[types.size()];
-            for (int i = 0; i < deviceDisplayNames.length; i++) {
-                deviceDisplayNames[i] = types.get(i).getSimpleDeviceTypeId();
-            }
             deviceTypeCombo = new Combo(group, SWT.READ_ONLY | SWT.BORDER);
-            deviceTypeCombo.setItems(deviceDisplayNames);
-            deviceTypeCombo.select(0);
             deviceTypeCombo.setLayoutData(new GridData(GridData.FILL, GridData.CENTER, true, false));
             deviceTypeCombo.addSelectionListener(new SelectionAdapter() {
                 @Override
                 public void widgetSelected(SelectionEvent event) {
                     int index = ((Combo)event.getSource()).getSelectionIndex();
-                    DeviceType type = types.get(index);
+                    DeviceType type = deviceTypes.get(index);
+                    deviceTypeId = type.getSimpleDeviceTypeId();
                     updateArchs(type);
                     updateLaunchConfigurationDialog();                    
                 }
@@ -135,9 +132,62 @@ public class IOSSimulatorLaunchConfigurationTabGroup extends AbstractLaunchConfi
                 }
             });
             
+            List<DeviceType> types = DeviceTypeCatalog.getInstance().getDeviceTypesIfLoaded();
+            if (types != null) {
+                setDeviceTypes(types);
+            } else {
+                // Don't block the UI thread while the simulator is queried
+                deviceTypeCombo.setItems(new String[] {"Loading..."});
+                deviceTypeCombo.select(0);
+                deviceTypeCombo.setEnabled(false);
+                final Display display = group.getDisplay();
+                DeviceTypeCatalog.getInstance().runWhenLoaded(new Runnable() {
+                    @Override
+                    public void run() {
+                        display.asyncExec(new Runnable() {
+                            @Override
+                            public void run() {
+                                if (!deviceTypeCombo.isDisposed()) {
+                                    setDeviceTypes(DeviceTypeCatalog.getInstance().getDeviceTypes());
+                                    deviceTypeCombo.setEnabled(true);
+                                    selectDeviceType(deviceTypeId);
+                                }
+                            }
+                        });
+                    }
+                });
+            }
+
             setControl(group);
         }
 
+        private void setDeviceTypes(List<DeviceType> types) {
+            deviceTypes = types;
+            String[] deviceDisplayNames = new String[types.size()];
+            for (int i = 0; i < deviceDisplayNames.length; i++) {
+                deviceDisplayNames[i] = types.get(i).getSimpleDeviceTypeId();
+            }
+            deviceTypeCombo.setItems(deviceDisplayNames);
+            deviceTypeCombo.select(0);
+        }
+
+        private void selectDeviceType(String id) {
+            DeviceType type = DeviceTypeCatalog.getInstance().findDeviceType(id);
+            if (type == null) {
+                type = DeviceTypeCatalog.getInstance().getBestDeviceType();
+            }
+            if (type == null) {
+                return;
+            }
+            String[] items = deviceTypeCombo.getItems();
+            for (int i = 0; i < items.length; i++) {
+                if (items[i].equals(type.getSimpleDeviceTypeId())) {
+                    deviceTypeCombo.select(i);
+                    break;
+                }
+            }
+        }
+
         private void updateArchs(DeviceType type) {
             List<String> availableArchs = new ArrayList<String>();
             int prefArchIndex = 0;
@@ -161,19 +211,10 @@ public class IOSSimulatorLaunchConfigurationTabGroup extends AbstractLaunchConfi
         public void initializeFrom(ILaunchConfiguration config) {
             super.initializeFrom(config);
             try {
-                String v = config.getAttribute(IOSSimulatorLaunchConfigurationDelegate.ATTR_IOS_SIM_DEVICE_TYPE,
+                deviceTypeId = config.getAttribute(IOSSimulatorLaunchConfigurationDelegate.ATTR_IOS_SIM_DEVICE_TYPE,
                         (String) null);
-                DeviceType type = DeviceType.getDeviceType(v);
-                if (type == null) {
-                    type = DeviceType.getBestDeviceType();
-                }
-
-                String[] items = deviceTypeCombo.getItems();
-                for (int i = 0; i < items.length; i++) {
-                    if (items[i].equals(type.getSimpleDeviceTypeId())) {
-                        deviceTypeCombo.select(i);
-                        break;
-                    }
+                if (deviceTypes != null) {
+                    selectDeviceType(deviceTypeId);
                 }
             } catch (Exception e) {
                 RoboVMPlugin.log(e);
@@ -195,8 +236,13 @@ public class IOSSimulatorLaunchConfigurationTabGroup extends AbstractLaunchConfi
         @Override
         public void performApply(ILaunchConfigurationWorkingCopy wc) {
             super.performApply(wc);
-            String selection = deviceTypeCombo.getItem(deviceTypeCombo.getSelectionIndex());
-            wc.setAttribute(IOSSimulatorLaunchConfigurationDelegate.ATTR_IOS_SIM_DEVICE_TYPE, selection);
+            if (deviceTypes != null) {
+                String selection = deviceTypeCombo.getItem(deviceTypeCombo.getSelectionIndex());
+                wc.setAttribute(IOSSimulatorLaunchConfigurationDelegate.ATTR_IOS_SIM_DEVICE_TYPE, selection);
+            } else if (deviceTypeId != null) {
+                // Still loading. Keep the current device type.
+                wc.setAttribute(IOSSimulatorLaunchConfigurationDelegate.ATTR_IOS_SIM_DEVICE_TYPE, deviceTypeId);
+            }
             Arch arch = POSSIBLE_ARCH_VALUES[archCombo.getSelectionIndex()];
             wc.setAttribute(IOSSimulatorLaunchConfigurationDelegate.ATTR_IOS_SIM_ARCH, arch.toString());
         }
@@ -204,8 +250,12 @@ public class IOSSimulatorLaunchConfigurationTabGroup extends AbstractLaunchConfi
         @Override
         public void setDefaults(ILaunchConfigurationWorkingCopy wc) {
             super.setDefaults(wc);
-            wc.setAttribute(IOSSimulatorLaunchConfigurationDelegate.ATTR_IOS_SIM_DEVICE_TYPE,
-                    DeviceType.getBestDeviceType().getSimpleDeviceTypeId());
+            if (DeviceTypeCatalog.getInstance().getDeviceTypesIfLoaded() != null) {
+                // If the device types are still loading the tab selects the
+                // best device type once they have been loaded.
+                wc.setAttribute(IOSSimulatorLaunchConfigurationDelegate.ATTR_IOS_SIM_DEVICE_TYPE,
+                        DeviceTypeCatalog.getInstance().getBestDeviceType().getSimpleDeviceTypeId());
+            }
             wc.setAttribute(IOSSimulatorLaunchConfigurationDelegate.ATTR_IOS_SIM_ARCH, 
                     IOSSimulatorLaunchConfigurationDelegate.DEFAULT_ARCH.toString());
         }
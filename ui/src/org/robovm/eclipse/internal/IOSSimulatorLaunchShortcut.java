@@ -39,7 +39,7 @@ public abstract class IOSSimulatorLaunchShortcut extends AbstractProjectLaunchSh
     @Override
     protected void customizeConfiguration(ILaunchConfigurationWorkingCopy wc) {
         wc.setAttribute(IOSSimulatorLaunchConfigurationDelegate.ATTR_IOS_SIM_DEVICE_TYPE,
-                DeviceType.getBestDeviceType(getFamily()).getSimpleDeviceTypeId());
+                DeviceTypeCatalog.getInstance().getBestDeviceType(getFamily()).getSimpleDeviceTypeId());
     }
 
     protected abstract DeviceFamily getFamily();
@@ -52,7 +52,7 @@ public abstract class IOSSimulatorLaunchShortcut extends AbstractProjectLaunchSh
             if (deviceTypeId == null) {
                 continue;
             }
-            DeviceType type = DeviceType.getDeviceType(deviceTypeId);
+            DeviceType type = DeviceTypeCatalog.getInstance().findDeviceType(deviceTypeId);
             if (type != null && type.getFamily() == getFamily()) {
                 result.add(config);
             }
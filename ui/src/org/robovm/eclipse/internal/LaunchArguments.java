@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2015 RoboVM AB
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package org.robovm.eclipse.internal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.exec.CommandLine;
+
+/**
+ * Argument and environment handling used by
+ * {@link AbstractLaunchConfigurationDelegate} on every launch. Kept free of
+ * Eclipse dependencies so that it can be benchmarked outside of Eclipse.
+ */
+public class LaunchArguments {
+
+    private LaunchArguments() {
+    }
+
+    /**
+     * Splits a command line string into separate arguments. Quoted arguments
+     * are unquoted.
+     */
+    public static List<String> splitArgs(String args) {
+        if (args == null || args.trim().length() == 0) {
+            return Collections.emptyList();
+        }
+        String[] parts = CommandLine.parse("foo " + args).toStrings();
+        if (parts.length <= 1) {
+            return Collections.emptyList();
+        }
+        List<String> result = new ArrayList<String>(parts.length - 1);
+        for (int i = 1; i < parts.length; i++) {
+            result.add(unquoteArg(parts[i]));
+        }
+        return result;
+    }
+
+    private static String unquoteArg(String arg) {
+        if (arg.startsWith("\"") && arg.endsWith("\"")) {
+            return arg.substring(1, arg.length() - 1);
+        }
+        return arg;
+    }
+
+    /**
+     * Converts an array of {@code name=value} strings into a {@link Map}.
+     * Strings without a {@code =} are ignored.
+     */
+    public static Map<String, String> envToMap(String[] envp) {
+        if (envp == null) {
+            return Collections.emptyMap();
+        }
+        Map<String, String> result = new HashMap<String, String>();
+        for (int i = 0; i < envp.length; i++) {
+            int index = envp[i].indexOf('=');
+            if (index != -1) {
+                result.put(envp[i].substring(0, index), envp[i].substring(index + 1));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Removes the arguments which belong to a compiler plugin from
+     * {@code args}. An argument {@code -name} or {@code -name=value} belongs
+     * to a plugin if {@code name} is in {@code pluginArgumentNames}. Returns
+     * the removed arguments without the leading {@code -}.
+     */
+    public static List<String> filterPluginArguments(List<String> args, Set<String> pluginArgumentNames) {
+        List<String> result = new ArrayList<String>();
+        Iterator<String> iter = args.iterator();
+        while (iter.hasNext()) {
+            String arg = iter.next();
+            if (!arg.startsWith("-rvm") && arg.startsWith("-")) {
+                String argName = arg.substring(1);
+                if (argName.contains("=")) {
+                    argName = argName.substring(0, argName.indexOf('='));
+                }
+                if (pluginArgumentNames.contains(argName)) {
+                    result.add(arg.substring(1));
+                    iter.remove();
+                }
+            }
+        }
+        return result;
+    }
+}
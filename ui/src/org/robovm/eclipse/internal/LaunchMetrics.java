@@ -0,0 +1,175 @@
+/*
+ * Copyright (C) 2015 RoboVM AB
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package org.robovm.eclipse.internal;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.robovm.compiler.log.Logger;
+
+/**
+ * Times the phases of a single launch. Only one phase is active at a time;
+ * starting a phase ends the previous one. Timing a phase costs two calls to
+ * {@link System#nanoTime()}. When the launch is done the result is added to
+ * the {@link BuildMetricsHistory}.
+ */
+public class LaunchMetrics {
+    public static final String VERIFY = "Verify";
+    public static final String CONFIG = "Config";
+    public static final String LOAD_CONFIG = "Load config";
+    public static final String QUEUE = "Queue";
+    public static final String CLEAN = "Clean";
+    public static final String COMPILE = "Compile";
+    public static final String LINK = "Link";
+    public static final String LAUNCH = "Launch";
+    public static final String ATTACH = "Attach debugger";
+    /**
+     * Time from the cancellation of a build until the compiler stopped.
+     */
+    public static final String CANCEL = "Cancel";
+
+    /**
+     * All phases in the order they run.
+     */
+    public static final String[] PHASES = {VERIFY, CONFIG, LOAD_CONFIG, QUEUE, CLEAN, COMPILE, LINK, LAUNCH,
+            ATTACH, CANCEL};
+
+    public static final String RESULT_OK = "OK";
+    public static final String RESULT_FAILED = "Failed";
+    public static final String RESULT_CANCELED = "Canceled";
+
+    private final String configurationName;
+    private final String mode;
+    private final long startTime = System.currentTimeMillis();
+    private final long startNanos = System.nanoTime();
+    private final Map<String, Long> durations = new LinkedHashMap<>();
+    private String target;
+    private BuildProgress progress;
+    private String phase;
+    private long phaseStart;
+    private boolean done = false;
+
+    public LaunchMetrics(String configurationName, String mode) {
+        this.configurationName = configurationName;
+        this.mode = mode;
+    }
+
+    public synchronized void setTarget(String target) {
+        this.target = target;
+    }
+
+    /**
+     * Sets the {@link BuildProgress} of the build of this launch. Its events
+     * are added to the {@link BuildMetricsHistory} with the phase durations.
+     */
+    public synchronized void setProgress(BuildProgress progress) {
+        this.progress = progress;
+    }
+
+    /**
+     * Ends the current phase, if any, and starts the specified one.
+     */
+    public synchronized void phase(String name) {
+        long now = System.nanoTime();
+        endPhase(now);
+        phase = name;
+        phaseStart = now;
+    }
+
+    /**
+     * Adds the specified number of milliseconds to a phase which isn't timed
+     * by {@link #phase(String)}.
+     */
+    public synchronized void record(String name, long millis) {
+        Long d = durations.get(name);
+        durations.put(name, (d != null ? d : 0) + TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    private void endPhase(long now) {
+        if (phase != null) {
+            Long d = durations.get(phase);
+            durations.put(phase, (d != null ? d : 0) + (now - phaseStart));
+            phase = null;
+        }
+    }
+
+    /**
+     * Ends the current phase and adds this launch to the
+     * {@link BuildMetricsHistory}. Subsequent calls are ignored.
+     */
+    public void done(String result) {
+        BuildMetricsHistory.Entry entry;
+        synchronized (this) {
+            if (done) {
+                return;
+            }
+            done = true;
+            long now = System.nanoTime();
+            endPhase(now);
+            Map<String, Long> millis = new LinkedHashMap<>();
+            for (Map.Entry<String, Long> e : durations.entrySet()) {
+                millis.put(e.getKey(), TimeUnit.NANOSECONDS.toMillis(e.getValue()));
+            }
+            List<BuildProgress.Event> events = progress != null
+                    ? progress.getEvents() : Collections.<BuildProgress.Event> emptyList();
+            entry = new BuildMetricsHistory.Entry(configurationName, mode, target, startTime,
+                    TimeUnit.NANOSECONDS.toMillis(now - startNanos), result, Collections.unmodifiableMap(millis),
+                    progress != null ? progress.getCompiledClasses() : -1,
+                    progress != null && progress.isFullBuild(), events);
+        }
+        BuildMetricsHistory.getInstance().add(entry);
+    }
+
+    /**
+     * Wraps the specified {@link Logger} and switches from the
+     * {@link #COMPILE} phase to the {@link #LINK} phase when the compiler
+     * reports that it has started linking.
+     */
+    public Logger wrap(final Logger logger) {
+        return new Logger() {
+            @Override
+            public void info(String format, Object... args) {
+                if (format.startsWith("Linking")) {
+                    synchronized (LaunchMetrics.this) {
+                        if (COMPILE.equals(phase)) {
+                            phase(LINK);
+                        }
+                    }
+                }
+                logger.info(format, args);
+            }
+
+            @Override
+            public void error(String format, Object... args) {
+                logger.error(format, args);
+            }
+
+            @Override
+            public void warn(String format, Object... args) {
+                logger.warn(format, args);
+            }
+
+            @Override
+            public void debug(String format, Object... args) {
+                logger.debug(format, args);
+            }
+        };
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright (C) 2015 RoboVM AB
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package org.robovm.eclipse.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IResourceDeltaVisitor;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.robovm.compiler.config.Config;
+import org.robovm.compiler.config.Resource;
+import org.robovm.eclipse.RoboVMPlugin;
+
+/**
+ * Caches the parts of a project's RoboVM {@link Config} which are needed
+ * outside of launches (resource folders, Info.plist). A snapshot is marked
+ * stale when one of the project's {@code robovm*.xml} or
+ * {@code robovm*.properties} files changes and is only rebuilt if the content
+ * hash of those files actually differs from the one it was built from.
+ */
+public class ProjectConfigCache implements IResourceChangeListener {
+    private static final ProjectConfigCache INSTANCE = new ProjectConfigCache();
+
+    private final Map<IProject, Snapshot> snapshots = new ConcurrentHashMap<IProject, Snapshot>();
+    private final Map<IProject, Snapshot> testSnapshots = new ConcurrentHashMap<IProject, Snapshot>();
+    private File emptyDir;
+
+    private ProjectConfigCache() {
+    }
+
+    public static ProjectConfigCache getInstance() {
+        return INSTANCE;
+    }
+
+    public void start() {
+        ResourcesPlugin.getWorkspace().addResourceChangeListener(this, IResourceChangeEvent.POST_CHANGE);
+    }
+
+    public Snapshot getSnapshot(IProject project) throws IOException {
+        return getSnapshot(project, false);
+    }
+
+    /**
+     * Returns the snapshot of the config used for tests if {@code test} is
+     * {@code true} and of the config used for the app otherwise.
+     */
+    public Snapshot getSnapshot(IProject project, boolean test) throws IOException {
+        Map<IProject, Snapshot> snapshots = test ? testSnapshots : this.snapshots;
+        Snapshot snapshot = snapshots.get(project);
+        if (snapshot != null && !snapshot.stale) {
+            return snapshot;
+        }
+        File projectRoot = project.getLocation().toFile();
+        String hash = BuildManifest.hashProjectConfig(projectRoot);
+        if (snapshot != null && snapshot.hash.equals(hash)) {
+            snapshot.stale = false;
+            return snapshot;
+        }
+        snapshot = createSnapshot(projectRoot, hash, test);
+        snapshots.put(project, snapshot);
+        return snapshot;
+    }
+
+    private Snapshot createSnapshot(File projectRoot, String hash, boolean test) throws IOException {
+        Config.Builder configBuilder = new Config.Builder();
+        configBuilder.home(RoboVMPlugin.getRoboVMHome());
+        // Fake a classpath to make Config happy
+        configBuilder.addClasspathEntry(getEmptyDir());
+        configBuilder.skipLinking(true);
+        RoboVMPlugin.loadConfig(configBuilder, projectRoot, test);
+        Config config = configBuilder.build();
+
+        Set<File> resourcePaths = new HashSet<>();
+        for (Resource r : config.getResources()) {
+            if (r.getPath() != null) {
+                resourcePaths.add(r.getPath());
+            } else if (r.getDirectory() != null) {
+                resourcePaths.add(r.getDirectory());
+            }
+        }
+        File infoPlist = null;
+        if (config.getIosInfoPList() != null) {
+            infoPlist = config.getIosInfoPList().getFile();
+        }
+        return new Snapshot(hash, resourcePaths, infoPlist);
+    }
+
+    private synchronized File getEmptyDir() {
+        if (emptyDir == null) {
+            emptyDir = new File(RoboVMPlugin.getMetadataDir(), "empty");
+        }
+        emptyDir.mkdirs();
+        return emptyDir;
+    }
+
+    private static boolean isProjectConfigFile(IResource resource) {
+        String name = resource.getName();
+        return resource.getType() == IResource.FILE && name.startsWith("robovm")
+                && (name.endsWith(".xml") || name.endsWith(".properties"));
+    }
+
+    @Override
+    public void resourceChanged(IResourceChangeEvent event) {
+        if (event == null || event.getDelta() == null) {
+            return;
+        }
+
+        try {
+            event.getDelta().accept(new IResourceDeltaVisitor() {
+                @Override
+                public boolean visit(IResourceDelta delta) throws CoreException {
+                    IResource resource = delta.getResource();
+                    if (resource.getType() == IResource.ROOT) {
+                        return true;
+                    }
+                    if (resource.getType() == IResource.PROJECT) {
+                        IProject project = (IProject) resource;
+                        if (delta.getKind() == IResourceDelta.REMOVED || !project.isOpen()) {
+                            snapshots.remove(project);
+                            testSnapshots.remove(project);
+                            return false;
+                        }
+                        return true;
+                    }
+                    if (isProjectConfigFile(resource)) {
+                        for (Map<IProject, Snapshot> m : Arrays.asList(snapshots, testSnapshots)) {
+                            Snapshot snapshot = m.get(resource.getProject());
+                            if (snapshot != null) {
+                                snapshot.stale = true;
+                            }
+                        }
+                    }
+                    // The config files we care about are in the project root.
+                    return false;
+                }
+            });
+        } catch (Throwable t) {
+            RoboVMPlugin.log(t);
+        }
+    }
+
+    /**
+     * The cached parts of a project's {@link Config}.
+     */
+    public static class Snapshot {
+        private final String hash;
+        private final Set<File> resourcePaths;
+        private final File infoPlist;
+        private volatile boolean stale = false;
+
+        Snapshot(String hash, Set<File> resourcePaths, File infoPlist) {
+            this.hash = hash;
+            this.resourcePaths = Collections.unmodifiableSet(resourcePaths);
+            this.infoPlist = infoPlist;
+        }
+
+        /**
+         * Returns the configured resource folders which currently exist.
+         * Existence is checked on every call since folders may be created
+         * or deleted without the config files changing.
+         */
+        public Set<File> getResourcePaths() {
+            Set<File> result = new HashSet<>();
+            for (File f : resourcePaths) {
+                if (f.isDirectory()) {
+                    result.add(f);
+                }
+            }
+            return Collections.unmodifiableSet(result);
+        }
+
+        public File getInfoPlist() {
+            return infoPlist;
+        }
+
+        /**
+         * Returns all configured resource files and folders and the
+         * Info.plist file, whether they exist or not. These are the inputs of
+         * a build which aren't on the classpath.
+         */
+        public List<File> getInputFiles() {
+            // Sorted to get a stable order for fingerprinting
+            List<File> result = new ArrayList<>(new TreeSet<>(resourcePaths));
+            if (infoPlist != null) {
+                result.add(infoPlist);
+            }
+            return result;
+        }
+    }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (C) 2012 RoboVM AB
+ * Copyright (C) 2015 RoboVM AB
  *
  * This program is free software; you can redistribute it and/or
  * modify it under the terms of the GNU General Public License
@@ -16,26 +16,268 @@
  */
 package org.robovm.eclipse.internal;
 
+import java.io.File;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Map;
 
+import org.eclipse.core.resources.ICommand;
 import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IProjectDescription;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IResourceDeltaVisitor;
 import org.eclipse.core.resources.IncrementalProjectBuilder;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.QualifiedName;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.core.JavaCore;
+import org.robovm.compiler.AppCompiler;
+import org.robovm.compiler.config.Arch;
+import org.robovm.compiler.config.Config;
+import org.robovm.compiler.config.OS;
+import org.robovm.eclipse.RoboVMPlugin;
 
 /**
- * @deprecated Kept around to keep old projects happy. Does nothing. Will not be
- *             added to new projects.
+ * Precompiles the classes of a project in the background as they change so
+ * that the next launch only has to link. Classes are compiled for the target
+ * of the project's most recent launch into the shared object cache by a low
+ * priority job holding a background ticket of the {@link BuildScheduler},
+ * which limits it to a single compiler thread. The job is canceled when the
+ * classes change again or when any project is launched.
+ * <p>
+ * Projects opt in through {@link #setEnabled(IProject, boolean)} which is
+ * stored as a persistent property of the project, i.e. per workspace. Without
+ * it this builder does nothing, as in older versions.
  */
-@Deprecated
 public class RoboVMClassBuilder extends IncrementalProjectBuilder {
 
     public static final String ID = "org.robovm.eclipse.RoboVMClassBuilder";
 
+    private static final QualifiedName ENABLED = new QualifiedName(RoboVMPlugin.PLUGIN_ID, "precompile");
+    private static final QualifiedName LAST_OS = new QualifiedName(RoboVMPlugin.PLUGIN_ID, "lastOS");
+    private static final QualifiedName LAST_ARCH = new QualifiedName(RoboVMPlugin.PLUGIN_ID, "lastArch");
+    private static final QualifiedName LAST_DEBUG = new QualifiedName(RoboVMPlugin.PLUGIN_ID, "lastDebug");
+    private static final QualifiedName LAST_TEST = new QualifiedName(RoboVMPlugin.PLUGIN_ID, "lastTest");
+    private static final QualifiedName LAST_MAIN_CLASS = new QualifiedName(RoboVMPlugin.PLUGIN_ID, "lastMainClass");
+    private static final QualifiedName LAST_TARGET_TYPE = new QualifiedName(RoboVMPlugin.PLUGIN_ID,
+            "lastTargetType");
+    private static final QualifiedName LAST_FORCE_LINK_CLASSES = new QualifiedName(RoboVMPlugin.PLUGIN_ID,
+            "lastForceLinkClasses");
+
+    /**
+     * Time to wait for more changes before precompiling.
+     */
+    private static final long DELAY = 1000;
+
+    private static final Map<IProject, PrecompileJob> jobs = new HashMap<>();
+
     @Override
     protected IProject[] build(int kind, Map<String, String> args,
             IProgressMonitor monitor) throws CoreException {
 
+        if ((monitor != null && monitor.isCanceled()) || isInterrupted()) {
+            return null;
+        }
+        IProject project = getProject();
+        if (!isEnabled(project)) {
+            return null;
+        }
+        if (kind != FULL_BUILD && !hasChangedClasses(getDelta(project))) {
+            return null;
+        }
+        schedulePrecompile(project);
         return null;
     }
+
+    private static boolean hasChangedClasses(IResourceDelta delta) throws CoreException {
+        if (delta == null) {
+            return true;
+        }
+        final boolean[] result = new boolean[1];
+        delta.accept(new IResourceDeltaVisitor() {
+            @Override
+            public boolean visit(IResourceDelta delta) throws CoreException {
+                IResource resource = delta.getResource();
+                if (resource.getType() == IResource.FILE && "class".equals(resource.getFileExtension())) {
+                    result[0] = true;
+                }
+                return !result[0];
+            }
+        });
+        return result[0];
+    }
+
+    /**
+     * Records the target of a launch of the specified project. Classes will
+     * be precompiled for that target starting from the same root classes.
+     */
+    public static void setLastTarget(IProject project, Config config, boolean test) {
+        try {
+            project.setPersistentProperty(LAST_OS, config.getOs().toString());
+            project.setPersistentProperty(LAST_ARCH, config.getArch().toString());
+            project.setPersistentProperty(LAST_DEBUG, Boolean.toString(config.isDebug()));
+            project.setPersistentProperty(LAST_TEST, Boolean.toString(test));
+            project.setPersistentProperty(LAST_MAIN_CLASS, config.getMainClass());
+            project.setPersistentProperty(LAST_TARGET_TYPE, config.getTargetType());
+            StringBuilder forceLinkClasses = new StringBuilder();
+            for (String pattern : config.getForceLinkClasses()) {
+                if (forceLinkClasses.length() > 0) {
+                    forceLinkClasses.append(',');
+                }
+                forceLinkClasses.append(pattern);
+            }
+            project.setPersistentProperty(LAST_FORCE_LINK_CLASSES, forceLinkClasses.toString());
+        } catch (CoreException e) {
+            RoboVMPlugin.log(e);
+        }
+    }
+
+    private static synchronized void schedulePrecompile(IProject project) {
+        PrecompileJob job = jobs.get(project);
+        if (job == null) {
+            job = new PrecompileJob(project);
+            jobs.put(project, job);
+        }
+        // Restarts the job if it's already running
+        job.cancel();
+        job.schedule(DELAY);
+    }
+
+    /**
+     * Returns {@code true} if background precompilation is enabled for the
+     * specified project.
+     */
+    public static boolean isEnabled(IProject project) throws CoreException {
+        return "true".equals(project.getPersistentProperty(ENABLED));
+    }
+
+    /**
+     * Enables or disables background precompilation for the specified
+     * project. The builder is added to projects which were created before it
+     * was declared by the RoboVM nature. Whether it does anything is kept out
+     * of the shared {@code .project} file.
+     */
+    public static void setEnabled(IProject project, boolean enabled) throws CoreException {
+        project.setPersistentProperty(ENABLED, Boolean.toString(enabled));
+        if (!enabled) {
+            synchronized (RoboVMClassBuilder.class) {
+                PrecompileJob job = jobs.get(project);
+                if (job != null) {
+                    job.cancel();
+                }
+            }
+            return;
+        }
+        IProjectDescription description = project.getDescription();
+        ICommand[] commands = description.getBuildSpec();
+        for (ICommand command : commands) {
+            if (ID.equals(command.getBuilderName())) {
+                schedulePrecompile(project);
+                return;
+            }
+        }
+        ICommand command = description.newCommand();
+        command.setBuilderName(ID);
+        // Run after the Java builder
+        commands = Arrays.copyOf(commands, commands.length + 1);
+        commands[commands.length - 1] = command;
+        description.setBuildSpec(commands);
+        project.setDescription(description, null);
+        schedulePrecompile(project);
+    }
+
+    private static class PrecompileJob extends Job {
+        private final IProject project;
+
+        PrecompileJob(IProject project) {
+            super("Precompiling " + project.getName());
+            this.project = project;
+            setPriority(DECORATE);
+            setSystem(true);
+        }
+
+        @Override
+        protected IStatus run(IProgressMonitor monitor) {
+            BuildScheduler.Ticket ticket = null;
+            try {
+                if (!project.isOpen() || !isEnabled(project)) {
+                    return Status.OK_STATUS;
+                }
+                String os = project.getPersistentProperty(LAST_OS);
+                String arch = project.getPersistentProperty(LAST_ARCH);
+                if (os == null || arch == null) {
+                    // Not launched yet. Nothing to precompile for.
+                    return Status.OK_STATUS;
+                }
+                Config.Home home = RoboVMPlugin.getRoboVMHomeIfReady();
+                if (home == null) {
+                    return Status.OK_STATUS;
+                }
+
+                File tmpDir = new File(new File(new File(RoboVMPlugin.getBuildDir(project.getName()),
+                        "precompile"), os), arch);
+                ticket = BuildScheduler.getInstance().acquireBackground(project.getName(), monitor);
+                if (ticket == null) {
+                    return Status.CANCEL_STATUS;
+                }
+
+                BuildCancellation cancellation = new BuildCancellation();
+                Config.Builder configBuilder = new Config.Builder();
+                configBuilder.logger(cancellation.wrap(RoboVMPlugin.getConsoleLogger()));
+                RoboVMPlugin.loadConfig(configBuilder, project.getLocation().toFile(),
+                        Boolean.parseBoolean(project.getPersistentProperty(LAST_TEST)));
+                configBuilder.os(OS.valueOf(os));
+                configBuilder.arch(Arch.valueOf(arch));
+                configBuilder.debug(Boolean.parseBoolean(project.getPersistentProperty(LAST_DEBUG)));
+                String mainClass = project.getPersistentProperty(LAST_MAIN_CLASS);
+                if (mainClass != null) {
+                    configBuilder.mainClass(mainClass);
+                }
+                String targetType = project.getPersistentProperty(LAST_TARGET_TYPE);
+                if (targetType != null) {
+                    configBuilder.targetType(targetType);
+                }
+                String forceLinkClasses = project.getPersistentProperty(LAST_FORCE_LINK_CLASSES);
+                if (forceLinkClasses != null && forceLinkClasses.length() > 0) {
+                    for (String pattern : forceLinkClasses.split(",")) {
+                        configBuilder.addForceLinkClass(pattern);
+                    }
+                }
+                for (String p : RuntimeClasspathResolver.getInstance().getRuntimeClasspath(JavaCore.create(project))) {
+                    configBuilder.addClasspathEntry(new File(p));
+                }
+                tmpDir.mkdirs();
+                configBuilder.tmpDir(tmpDir);
+                configBuilder.home(home);
+                configBuilder.skipLinking(true);
+                configBuilder.skipInstall(true);
+                // Leave the other cores for the editor and the Java builder
+                configBuilder.threads(ticket.getThreads());
+
+                RoboVMPlugin.consoleDebug("Precompiling classes of %s for %s/%s", project.getName(), os, arch);
+                AppCompilerThread thread = new AppCompilerThread(new AppCompiler(configBuilder.build()), monitor,
+                        cancellation);
+                thread.compile();
+                if (monitor.isCanceled()) {
+                    return Status.CANCEL_STATUS;
+                }
+                RoboVMPlugin.consoleDebug("Precompiled classes of %s", project.getName());
+                return Status.OK_STATUS;
+            } catch (InterruptedException e) {
+                return Status.CANCEL_STATUS;
+            } catch (Throwable t) {
+                // The next launch reports real build errors
+                RoboVMPlugin.consoleDebug("Precompiling classes of %s failed: %s", project.getName(), t);
+                return Status.OK_STATUS;
+            } finally {
+                if (ticket != null) {
+                    ticket.release();
+                }
+            }
+        }
+    }
 }
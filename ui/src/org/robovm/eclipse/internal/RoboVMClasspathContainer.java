@@ -17,7 +17,6 @@
 package org.robovm.eclipse.internal;
 
 import java.io.File;
-import java.io.IOException;
 
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.Path;
@@ -27,7 +26,6 @@ import org.eclipse.jdt.core.IClasspathContainer;
 import org.eclipse.jdt.core.IClasspathEntry;
 import org.eclipse.jdt.core.JavaCore;
 import org.robovm.compiler.config.Config;
-import org.robovm.eclipse.RoboVMPlugin;
 
 /**
  *
@@ -38,29 +36,41 @@ public class RoboVMClasspathContainer implements IClasspathContainer {
     public static final String ID = "org.robovm.eclipse.ROBOVM_CONTAINER";
     public static final IPath PATH = new Path(ID);
     
+    private final Config.Home home;
+
+    /**
+     * Creates a new container. If {@code home} is {@code null} the container
+     * is a placeholder without any entries which is used until the RoboVM home
+     * has been provisioned.
+     */
+    public RoboVMClasspathContainer(Config.Home home) {
+        this.home = home;
+    }
+
     public IClasspathEntry[] getClasspathEntries() {
-    	try {
-	        Config.Home home = RoboVMPlugin.getRoboVMHome();
-	        File f = home.getRtPath();
-	        IPath sourceAttachment = null;
-	        if (!home.isDev()) {
-	            // robovm-rt.jar. Use robovm-rt-sources.jar as source attachment.
-	            sourceAttachment = new Path(new File(f.getParentFile(), "robovm-rt-sources.jar").getAbsolutePath());
-	        } else {
-	            // ROBOVM_DEV_ROOT has been set and rtPath is $ROBOVM_DEV_ROOT/rt/target/robovm-rt-<version>.jar. Use
-	            // $ROBOVM_DEV_ROOT/rt/target/robovm-rt-<version>-sources.jar as source attachment.
-	            sourceAttachment = new Path(f.getAbsolutePath().replaceAll("\\.jar$", "-sources.jar"));
-	        }
-	        return new IClasspathEntry[] {
-	            JavaCore.newLibraryEntry(new Path(f.getAbsolutePath()), sourceAttachment, new Path(""),
-	                    new IAccessRule[] {}, new IClasspathAttribute[] {}, false)
-	        };
-    	} catch (IOException e) {
-            throw new RuntimeException(e);
-    	}
+        if (home == null) {
+            return new IClasspathEntry[0];
+        }
+        File f = home.getRtPath();
+        IPath sourceAttachment = null;
+        if (!home.isDev()) {
+            // robovm-rt.jar. Use robovm-rt-sources.jar as source attachment.
+            sourceAttachment = new Path(new File(f.getParentFile(), "robovm-rt-sources.jar").getAbsolutePath());
+        } else {
+            // ROBOVM_DEV_ROOT has been set and rtPath is $ROBOVM_DEV_ROOT/rt/target/robovm-rt-<version>.jar. Use
+            // $ROBOVM_DEV_ROOT/rt/target/robovm-rt-<version>-sources.jar as source attachment.
+            sourceAttachment = new Path(f.getAbsolutePath().replaceAll("\\.jar$", "-sources.jar"));
+        }
+        return new IClasspathEntry[] {
+            JavaCore.newLibraryEntry(new Path(f.getAbsolutePath()), sourceAttachment, new Path(""),
+                    new IAccessRule[] {}, new IClasspathAttribute[] {}, false)
+        };
     }
 
     public String getDescription() {
+        if (home == null) {
+            return "RoboVM Runtime Library (initializing)";
+        }
         return "RoboVM Runtime Library";
     }
 
@@ -23,6 +23,8 @@ import org.eclipse.jdt.core.ClasspathContainerInitializer;
 import org.eclipse.jdt.core.IClasspathContainer;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.JavaCore;
+import org.robovm.compiler.config.Config;
+import org.robovm.eclipse.RoboVMPlugin;
 
 /**
  *
@@ -31,10 +33,27 @@ import org.eclipse.jdt.core.JavaCore;
 public class RoboVMClasspathContainerInitializer extends ClasspathContainerInitializer {
 
     @Override
-    public void initialize(IPath containerPath, IJavaProject project) throws CoreException {
+    public void initialize(final IPath containerPath, final IJavaProject project) throws CoreException {
+        // Don't block JDT while the RoboVM home is being provisioned. Use a
+        // placeholder container and replace it once the home is ready.
+        Config.Home home = RoboVMPlugin.getRoboVMHomeIfReady();
         JavaCore.setClasspathContainer(containerPath, new IJavaProject[] {project}, 
-                new IClasspathContainer[] {new RoboVMClasspathContainer()}, 
+                new IClasspathContainer[] {new RoboVMClasspathContainer(home)}, 
                 new NullProgressMonitor());
+        if (home == null) {
+            RoboVMPlugin.runWhenRoboVMHomeReady(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        if (project.getProject().isOpen()) {
+                            initialize(containerPath, project);
+                        }
+                    } catch (CoreException e) {
+                        RoboVMPlugin.log(e);
+                    }
+                }
+            });
+        }
     }
 
 }
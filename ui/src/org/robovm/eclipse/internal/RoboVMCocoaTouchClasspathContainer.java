@@ -17,7 +17,6 @@
 package org.robovm.eclipse.internal;
 
 import java.io.File;
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -29,7 +28,6 @@ import org.eclipse.jdt.core.IClasspathContainer;
 import org.eclipse.jdt.core.IClasspathEntry;
 import org.eclipse.jdt.core.JavaCore;
 import org.robovm.compiler.config.Config;
-import org.robovm.eclipse.RoboVMPlugin;
 
 /**
  *
@@ -40,41 +38,53 @@ public class RoboVMCocoaTouchClasspathContainer implements IClasspathContainer {
     public static final String ID = "org.robovm.eclipse.ROBOVM_COCOA_TOUCH_CONTAINER";
     public static final IPath PATH = new Path(ID);
     
+    private final Config.Home home;
+
+    /**
+     * Creates a new container. If {@code home} is {@code null} the container
+     * is a placeholder without any entries which is used until the RoboVM home
+     * has been provisioned.
+     */
+    public RoboVMCocoaTouchClasspathContainer(Config.Home home) {
+        this.home = home;
+    }
+
     public IClasspathEntry[] getClasspathEntries() {
-    	try {
-	        Config.Home home = RoboVMPlugin.getRoboVMHome();
-	        File f = home.getRtPath();
-	        List<IClasspathEntry> entries = new ArrayList<IClasspathEntry>();
-	        if (!home.isDev()) {
-	            // ROBOVM_DEV_ROOT not set (rtPath points to $ROBOVM_HOME/lib/robovm-rt.jar).
-	            File libDir = f.getParentFile();
-	            entries.add(JavaCore.newLibraryEntry(
-	                    new Path(new File(libDir, "robovm-objc.jar").getAbsolutePath()), 
-	                    new Path(new File(libDir, "robovm-objc-sources.jar").getAbsolutePath()), 
-	                    new Path(""), new IAccessRule[] {}, new IClasspathAttribute[] {}, false));
-	            entries.add(JavaCore.newLibraryEntry(
-	                    new Path(new File(libDir, "robovm-cocoatouch.jar").getAbsolutePath()), 
-	                    new Path(new File(libDir, "robovm-cocoatouch-sources.jar").getAbsolutePath()), 
-	                    new Path(""), new IAccessRule[] {}, new IClasspathAttribute[] {}, false));
-	        } else {
-	            // ROBOVM_DEV_ROOT has been set (rtPath points to $ROBOVM_DEV_ROOT/rt/target/robovm-rt-<version>.jar).
-	            File rootDir = f.getParentFile().getParentFile().getParentFile();
-	            entries.add(JavaCore.newLibraryEntry(
-	                    new Path(new File(rootDir, "objc/target/classes").getAbsolutePath()), 
-	                    new Path(new File(rootDir, "objc/src/main/java").getAbsolutePath()), 
-	                    new Path(""), new IAccessRule[] {}, new IClasspathAttribute[] {}, false));
-	            entries.add(JavaCore.newLibraryEntry(
-	                    new Path(new File(rootDir, "cocoatouch/target/classes").getAbsolutePath()), 
-	                    new Path(new File(rootDir, "cocoatouch/src/main/java").getAbsolutePath()), 
-	                    new Path(""), new IAccessRule[] {}, new IClasspathAttribute[] {}, false));
-	        }
-	        return entries.toArray(new IClasspathEntry[entries.size()]);
-    	} catch (IOException e) {
-    		throw new RuntimeException(e);
-    	}
+        if (home == null) {
+            return new IClasspathEntry[0];
+        }
+        File f = home.getRtPath();
+        List<IClasspathEntry> entries = new ArrayList<IClasspathEntry>();
+        if (!home.isDev()) {
+            // ROBOVM_DEV_ROOT not set (rtPath points to $ROBOVM_HOME/lib/robovm-rt.jar).
+            File libDir = f.getParentFile();
+            entries.add(JavaCore.newLibraryEntry(
+                    new Path(new File(libDir, "robovm-objc.jar").getAbsolutePath()), 
+                    new Path(new File(libDir, "robovm-objc-sources.jar").getAbsolutePath()), 
+                    new Path(""), new IAccessRule[] {}, new IClasspathAttribute[] {}, false));
+            entries.add(JavaCore.newLibraryEntry(
+                    new Path(new File(libDir, "robovm-cocoatouch.jar").getAbsolutePath()), 
+                    new Path(new File(libDir, "robovm-cocoatouch-sources.jar").getAbsolutePath()), 
+                    new Path(""), new IAccessRule[] {}, new IClasspathAttribute[] {}, false));
+        } else {
+            // ROBOVM_DEV_ROOT has been set (rtPath points to $ROBOVM_DEV_ROOT/rt/target/robovm-rt-<version>.jar).
+            File rootDir = f.getParentFile().getParentFile().getParentFile();
+            entries.add(JavaCore.newLibraryEntry(
+                    new Path(new File(rootDir, "objc/target/classes").getAbsolutePath()), 
+                    new Path(new File(rootDir, "objc/src/main/java").getAbsolutePath()), 
+                    new Path(""), new IAccessRule[] {}, new IClasspathAttribute[] {}, false));
+            entries.add(JavaCore.newLibraryEntry(
+                    new Path(new File(rootDir, "cocoatouch/target/classes").getAbsolutePath()), 
+                    new Path(new File(rootDir, "cocoatouch/src/main/java").getAbsolutePath()), 
+                    new Path(""), new IAccessRule[] {}, new IClasspathAttribute[] {}, false));
+        }
+        return entries.toArray(new IClasspathEntry[entries.size()]);
     }
 
     public String getDescription() {
+        if (home == null) {
+            return "RoboVM CocoaTouch Library (initializing)";
+        }
         return "RoboVM CocoaTouch Library";
     }
 
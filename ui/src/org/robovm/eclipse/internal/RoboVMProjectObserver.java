@@ -20,8 +20,11 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
@@ -46,13 +49,48 @@ import org.robovm.eclipse.RoboVMPlugin;
  * Resource change listener that observes changes in projects (import, classpath
  * changes, etc.). Adds RoboVM nature and classpath container if applicable, removing
  * any JDK container in the process.
+ * <p>
+ * Only project opens, description changes and changes to {@code .classpath}
+ * and {@code robovm.xml} are considered. Changed projects are collected and
+ * checked together after a short delay. A project is only checked again if
+ * one of its {@code .project}, {@code .classpath} or {@code robovm.xml} files
+ * has changed since it was last checked.
  * @author badlogic
  *
  */
 public class RoboVMProjectObserver implements IResourceChangeListener {
     private static final RoboVMProjectObserver INSTANCE = new RoboVMProjectObserver();
+    private static final long DEBOUNCE_DELAY = 250;
+    private static final int PROJECT_FLAGS = IResourceDelta.OPEN | IResourceDelta.DESCRIPTION;
     
+    private final Set<IProject> pendingProjects = new LinkedHashSet<>();
+    private final Map<IProject, String> checkedStamps = new ConcurrentHashMap<>();
+    private final Job updateJob = new Job("RoboVM Project Observer") {
+        @Override
+        protected IStatus run(IProgressMonitor monitor) {
+            List<IProject> projects;
+            synchronized (pendingProjects) {
+                projects = new ArrayList<>(pendingProjects);
+                pendingProjects.clear();
+            }
+            for (IProject project : projects) {
+                if (monitor.isCanceled()) {
+                    return Status.CANCEL_STATUS;
+                }
+                if (project.isOpen()) {
+                    try {
+                        projectChanged(project);
+                    } catch (CoreException e) {
+                        RoboVMPlugin.log(e);
+                    }
+                }
+            }
+            return Status.OK_STATUS;
+        }
+    };
+
     private RoboVMProjectObserver() {
+        updateJob.setSystem(true);
     }
     
     public static RoboVMProjectObserver getInstance() {
@@ -91,15 +129,31 @@ public class RoboVMProjectObserver implements IResourceChangeListener {
         try {
             event.getDelta().accept(new IResourceDeltaVisitor() {
                 public boolean visit(final IResourceDelta delta) throws CoreException {
-                    IResource resource = delta.getResource();                    
-                    if ((resource.getType() & IResource.PROJECT) != 0) {
-                        IProject project = (IProject) resource;                        
-                        if (project.isOpen()) {                            
-                            projectChanged(project);
+                    IResource resource = delta.getResource();
+                    switch (resource.getType()) {
+                    case IResource.ROOT:
+                        return true;
+                    case IResource.PROJECT:
+                        IProject project = (IProject) resource;
+                        if (delta.getKind() == IResourceDelta.REMOVED || !project.isOpen()) {
+                            checkedStamps.remove(project);
                             return false;
                         }
+                        if (delta.getKind() == IResourceDelta.ADDED || (delta.getFlags() & PROJECT_FLAGS) != 0) {
+                            schedule(project);
+                            return false;
+                        }
+                        // Look for .classpath and robovm.xml changes
+                        return true;
+                    case IResource.FILE:
+                        if (isObservedFile(resource)) {
+                            schedule(resource.getProject());
+                        }
+                        return false;
+                    default:
+                        // Observed files are all in the project root
+                        return false;
                     }
-                    return true;
                 }                
             });
 
@@ -107,9 +161,37 @@ public class RoboVMProjectObserver implements IResourceChangeListener {
             RoboVMPlugin.log(t);
         }
     }
-    
+
+    private static boolean isObservedFile(IResource resource) {
+        String name = resource.getName();
+        return ".classpath".equals(name) || "robovm.xml".equals(name) || ".project".equals(name);
+    }
+
+    private void schedule(IProject project) {
+        synchronized (pendingProjects) {
+            pendingProjects.add(project);
+        }
+        updateJob.schedule(DEBOUNCE_DELAY);
+    }
+
+    /**
+     * Returns the modification stamps of the files which determine whether a
+     * project needs to be updated.
+     */
+    private static String getStamps(IProject project) {
+        return project.getFile(".project").getModificationStamp() + ":"
+                + project.getFile(".classpath").getModificationStamp() + ":"
+                + project.getFile("robovm.xml").getModificationStamp();
+    }
+
     private void projectChanged(final IProject project) throws CoreException {        
         
+        String stamps = getStamps(project);
+        if (stamps.equals(checkedStamps.get(project))) {
+            return;
+        }
+        checkedStamps.put(project, stamps);
+
         final IJavaProject javaProject = JavaCore.create(project);        
         if(javaProject == null || !javaProject.exists()) {
             return;
@@ -126,11 +208,23 @@ public class RoboVMProjectObserver implements IResourceChangeListener {
         boolean hasRoboVMContainer = false;
         boolean hasRoboVMNature = project.hasNature(RoboVMNature.ID);
         
-        for(IClasspathEntry entry: javaProject.getRawClasspath()) {
-            if(RoboVMClasspathContainer.ID.equals(entry.getPath().toString())) {
+        boolean hasJREContainer = false;
+        IClasspathEntry[] rawClasspath = javaProject.getRawClasspath();
+        for(IClasspathEntry entry: rawClasspath) {
+            String path = entry.getPath().toString();
+            if(RoboVMClasspathContainer.ID.equals(path)) {
                 hasRoboVMContainer = true;
                 isRoboVMProject = true;
             }
+            // check if we got a JRE container attached        
+            if(path.startsWith("org.eclipse.jdt.launching.JRE_CONTAINER")) {
+                hasJREContainer = true;
+            }
+        }
+        
+        // check if there's a robovm.xml in the root of the project
+        if (!project.getFile("robovm.xml").exists()) {
+            return;
         }
         
         for(IClasspathEntry entry: javaProject.getResolvedClasspath(true)) {                        
@@ -144,17 +238,6 @@ public class RoboVMProjectObserver implements IResourceChangeListener {
             }
         }
         
-        // check if there's a robovm.xml in the root of the project
-        isRoboVMProject &= project.getFile("robovm.xml").exists();  
-        
-        // check if we got a JRE container attached        
-        boolean hasJREContainer = false;
-        for(IClasspathEntry e: javaProject.getRawClasspath()) {              
-            if(e.getPath().toString().startsWith("org.eclipse.jdt.launching.JRE_CONTAINER")) {
-                hasJREContainer = true;
-            }
-        }
-        
         if(isRoboVMProject) {                        
             if(!hasRoboVMContainer || !hasRoboVMNature || hasJREContainer) {
                 final boolean hasContainer = hasRoboVMContainer;
@@ -0,0 +1,209 @@
+/*
+ * Copyright (C) 2015 RoboVM AB
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package org.robovm.eclipse.internal;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IAdaptable;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.launching.IRuntimeClasspathEntry;
+import org.eclipse.jdt.launching.JavaRuntime;
+
+/**
+ * Resolves and caches the classpaths of the Java projects in the workspace.
+ * Used by launches, IPA creation and the Interface Builder integrator so that
+ * a project's classpath is resolved once and reused until JDT reports that
+ * the classpath of a project in the workspace has changed.
+ */
+public class RuntimeClasspathResolver implements ClasspathChangeListener.Listener {
+
+    private static final RuntimeClasspathResolver INSTANCE = new RuntimeClasspathResolver();
+
+    private final Map<IJavaProject, List<String>> runtimeClasspaths = new ConcurrentHashMap<>();
+    private final Map<IJavaProject, List<File>> buildClasspaths = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    private RuntimeClasspathResolver() {
+    }
+
+    public static RuntimeClasspathResolver getInstance() {
+        return INSTANCE;
+    }
+
+    public void start() {
+        ClasspathChangeListener.getInstance().addListener(this);
+    }
+
+    /**
+     * Returns the locations of the user classes of the specified project and
+     * the projects it depends on, i.e. its runtime classpath without the JRE.
+     */
+    public String[] getRuntimeClasspath(IJavaProject javaProject) throws CoreException {
+        List<String> result = runtimeClasspaths.get(javaProject);
+        if (result == null) {
+            long gen = generation.get();
+            Set<String> classpath = new LinkedHashSet<>();
+            resolveRuntimeClasspath(javaProject, classpath, new HashSet<IJavaProject>());
+            result = Collections.unmodifiableList(new ArrayList<>(classpath));
+            put(runtimeClasspaths, javaProject, result, gen);
+        }
+        return result.toArray(new String[result.size()]);
+    }
+
+    /**
+     * Returns the existing libraries and output folders on the resolved build
+     * classpath of the specified project and the projects it depends on. The
+     * resolved classpath is cached but existence is checked on every call
+     * since output folders and libraries may be created after it was resolved.
+     */
+    public List<File> getBuildClasspath(IJavaProject javaProject) throws CoreException {
+        List<File> classpath = buildClasspaths.get(javaProject);
+        if (classpath == null) {
+            long gen = generation.get();
+            Set<File> files = new LinkedHashSet<>();
+            resolveBuildClasspath(ResourcesPlugin.getWorkspace().getRoot(), javaProject, files,
+                    new HashSet<IJavaProject>());
+            classpath = Collections.unmodifiableList(new ArrayList<>(files));
+            put(buildClasspaths, javaProject, classpath, gen);
+        }
+        List<File> result = new ArrayList<>();
+        for (File f : classpath) {
+            if (f.exists()) {
+                result.add(f);
+            }
+        }
+        return result;
+    }
+
+    private static void resolveRuntimeClasspath(IJavaProject project, Set<String> classpath,
+            Set<IJavaProject> visited) throws CoreException {
+
+        if (!visited.add(project)) {
+            return;
+        }
+        for (IRuntimeClasspathEntry unresolved : JavaRuntime.computeUnresolvedRuntimeClasspath(project)) {
+            for (IRuntimeClasspathEntry entry : JavaRuntime.resolveRuntimeClasspathEntry(unresolved, project)) {
+                if (entry.getClasspathProperty() != IRuntimeClasspathEntry.USER_CLASSES) {
+                    continue;
+                }
+                IProject projectEntry = toProject(entry.getResource());
+                if (projectEntry != null) {
+                    resolveRuntimeClasspath(JavaCore.create(projectEntry), classpath, visited);
+                } else if (entry.getLocation() != null) {
+                    classpath.add(entry.getLocation());
+                }
+            }
+        }
+        classpath.addAll(Arrays.asList(JavaRuntime.computeDefaultRuntimeClassPath(project)));
+    }
+
+    private static void resolveBuildClasspath(IWorkspaceRoot root, IJavaProject project, Set<File> classpath,
+            Set<IJavaProject> visited) throws CoreException {
+
+        if (!visited.add(project)) {
+            return;
+        }
+        for (IClasspathEntry cpe : project.getResolvedClasspath(true)) {
+            if (cpe.getEntryKind() == IClasspathEntry.CPE_PROJECT) {
+                IResource res = root.findMember(cpe.getPath());
+                if (res != null) {
+                    resolveBuildClasspath(root, JavaCore.create(res.getProject()), classpath, visited);
+                }
+            } else if (cpe.getEntryKind() != IClasspathEntry.CPE_SOURCE && cpe.getPath() != null) {
+                classpath.add(toFile(root, cpe.getPath()));
+            }
+        }
+        classpath.addAll(getOutputLocations(project));
+    }
+
+    private static Set<File> getOutputLocations(IJavaProject javaProject) throws CoreException {
+        Set<File> result = new LinkedHashSet<>();
+        IProject project = javaProject.getProject();
+        if (javaProject.getOutputLocation() != null) {
+            result.add(project.getFile(javaProject.getOutputLocation().removeFirstSegments(1)).getLocation().toFile());
+        }
+        for (IClasspathEntry cpe : javaProject.getRawClasspath()) {
+            if (cpe.getOutputLocation() != null) {
+                result.add(project.getFile(cpe.getOutputLocation().removeFirstSegments(1)).getLocation().toFile());
+            }
+        }
+        return result;
+    }
+
+    private static File toFile(IWorkspaceRoot root, IPath path) {
+        File file = path.toFile();
+        if (!file.exists() && path.segmentCount() > 1 && root.getProject(path.segment(0)).exists()) {
+            // Probably a workspace absolute path. Resolve it even if the file
+            // doesn't exist yet.
+            IPath location = root.getFile(path).getLocation();
+            if (location != null) {
+                file = location.toFile();
+            }
+        }
+        return file;
+    }
+
+    private static IProject toProject(Object o) {
+        if (o instanceof IProject) {
+            return (IProject) o;
+        }
+        if (o instanceof IAdaptable) {
+            return (IProject) ((IAdaptable) o).getAdapter(IProject.class);
+        }
+        return null;
+    }
+
+    @Override
+    public void classpathChanged(IJavaProject javaProject) {
+        generation.incrementAndGet();
+        // Any cached project may depend on this one
+        runtimeClasspaths.clear();
+        buildClasspaths.clear();
+    }
+
+    /**
+     * Caches the specified value unless the cache has been invalidated since
+     * {@code gen} was read. Removes it again if an invalidation races with
+     * the put.
+     */
+    private <V> void put(Map<IJavaProject, V> map, IJavaProject key, V value, long gen) {
+        if (generation.get() == gen) {
+            map.put(key, value);
+            if (generation.get() != gen) {
+                map.remove(key, value);
+            }
+        }
+    }
+}
@@ -0,0 +1,327 @@
+/*
+ * Copyright (C) 2015 RoboVM AB
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package org.robovm.eclipse.internal;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.robovm.compiler.target.ios.ProvisioningProfile;
+import org.robovm.compiler.target.ios.SigningIdentity;
+import org.robovm.eclipse.RoboVMPlugin;
+
+/**
+ * Keeps the signing identities and provisioning profiles installed on this
+ * machine. They are loaded once in the background and reloaded when the
+ * provisioning profiles directory or the keychains directory changes, rather
+ * than being listed on every launch and every time a dialog opens. If one of
+ * those directories doesn't exist yet its closest existing parent is watched
+ * until it has been created.
+ */
+public class SigningCatalog {
+
+    /**
+     * Time to wait for more file system events before reloading.
+     */
+    private static final long RELOAD_DELAY = 500;
+
+    private static SigningCatalog instance;
+
+    private final Loader loader;
+    private final List<File> watchedDirs;
+    private final Object loadLock = new Object();
+    private volatile Snapshot snapshot;
+    private WatchService watchService;
+    private Thread watchThread;
+    private final Set<Path> registeredDirs = new HashSet<>();
+
+    private final Job reloadJob = new Job("Loading signing identities and provisioning profiles") {
+        @Override
+        protected IStatus run(IProgressMonitor monitor) {
+            try {
+                reload();
+            } catch (Throwable t) {
+                RoboVMPlugin.log(t);
+            }
+            return Status.OK_STATUS;
+        }
+    };
+
+    /**
+     * Lists the signing identities and provisioning profiles.
+     */
+    public interface Loader {
+        List<SigningIdentity> listSigningIdentities();
+
+        List<ProvisioningProfile> listProvisioningProfiles();
+    }
+
+    private static final class Snapshot {
+        private final List<SigningIdentity> signingIdentities;
+        private final List<ProvisioningProfile> provisioningProfiles;
+
+        private Snapshot(List<SigningIdentity> signingIdentities, List<ProvisioningProfile> provisioningProfiles) {
+            this.signingIdentities = Collections.unmodifiableList(new ArrayList<>(signingIdentities));
+            this.provisioningProfiles = Collections.unmodifiableList(new ArrayList<>(provisioningProfiles));
+        }
+    }
+
+    /**
+     * Creates a catalog which loads through the specified {@link Loader} and
+     * reloads when any of the specified directories change.
+     */
+    public SigningCatalog(Loader loader, List<File> watchedDirs) {
+        this.loader = loader;
+        this.watchedDirs = new ArrayList<>(watchedDirs);
+        reloadJob.setSystem(true);
+    }
+
+    public static synchronized SigningCatalog getInstance() {
+        if (instance == null) {
+            File home = new File(System.getProperty("user.home"));
+            instance = new SigningCatalog(new Loader() {
+                @Override
+                public List<SigningIdentity> listSigningIdentities() {
+                    return SigningIdentity.list();
+                }
+
+                @Override
+                public List<ProvisioningProfile> listProvisioningProfiles() {
+                    return ProvisioningProfile.list();
+                }
+            }, Arrays.asList(new File(home, "Library/MobileDevice/Provisioning Profiles"),
+                    new File(home, "Library/Keychains")));
+        }
+        return instance;
+    }
+
+    /**
+     * Starts watching the directories and schedules the initial load.
+     */
+    public synchronized void start() {
+        if (watchThread != null) {
+            return;
+        }
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            registerWatchedDirs(watchService);
+            if (!registeredDirs.isEmpty()) {
+                watchThread = new Thread("RoboVM signing catalog watcher") {
+                    @Override
+                    public void run() {
+                        watch();
+                    }
+                };
+                watchThread.setDaemon(true);
+                watchThread.start();
+            } else {
+                watchService.close();
+                watchService = null;
+            }
+        } catch (IOException e) {
+            RoboVMPlugin.log(e);
+        }
+        reloadJob.schedule();
+    }
+
+    public synchronized void stop() {
+        reloadJob.cancel();
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                RoboVMPlugin.log(e);
+            }
+            watchService = null;
+        }
+        registeredDirs.clear();
+        watchThread = null;
+    }
+
+    /**
+     * Registers each watched directory, or its closest existing parent if it
+     * doesn't exist, with the specified {@link WatchService}.
+     */
+    private synchronized void registerWatchedDirs(WatchService ws) throws IOException {
+        for (File dir : watchedDirs) {
+            File f = dir;
+            while (f != null && !f.isDirectory()) {
+                f = f.getParentFile();
+            }
+            if (f != null) {
+                Path path = f.toPath();
+                if (registeredDirs.add(path)) {
+                    path.register(ws, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns {@code true} if the specified event of a watched directory or
+     * of a parent of a watched directory may affect a watched directory.
+     */
+    private boolean isRelevant(WatchKey key, WatchEvent<?> event) {
+        if (!(key.watchable() instanceof Path) || !(event.context() instanceof Path)) {
+            // Overflow. Can't tell.
+            return true;
+        }
+        Path changed = ((Path) key.watchable()).resolve((Path) event.context());
+        for (File dir : watchedDirs) {
+            Path watched = dir.toPath();
+            if (changed.startsWith(watched) || watched.startsWith(changed)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean processEvents(WatchKey key) {
+        boolean relevant = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            relevant |= isRelevant(key, event);
+        }
+        if (!key.reset()) {
+            // The directory is gone. Register it again once it reappears.
+            synchronized (this) {
+                registeredDirs.remove(key.watchable());
+            }
+        }
+        return relevant;
+    }
+
+    private void watch() {
+        WatchService ws = watchService;
+        try {
+            while (true) {
+                boolean relevant = processEvents(ws.take());
+                // Wait for the rest of a batch of changes before reloading
+                WatchKey key;
+                while ((key = ws.poll(RELOAD_DELAY, TimeUnit.MILLISECONDS)) != null) {
+                    relevant |= processEvents(key);
+                }
+                if (relevant) {
+                    // A watched directory may have been created or deleted
+                    registerWatchedDirs(ws);
+                    RoboVMPlugin.consoleDebug("Signing identities or provisioning profiles changed. Reloading.");
+                    reloadJob.schedule();
+                }
+            }
+        } catch (ClosedWatchServiceException e) {
+            // Stopped
+        } catch (InterruptedException e) {
+            // Stopped
+        } catch (IOException e) {
+            RoboVMPlugin.log(e);
+        }
+    }
+
+    /**
+     * Returns the signing identities. Only blocks if the initial load hasn't
+     * completed yet.
+     */
+    public List<SigningIdentity> getSigningIdentities() {
+        return getSnapshot().signingIdentities;
+    }
+
+    /**
+     * Returns the provisioning profiles. Only blocks if the initial load
+     * hasn't completed yet.
+     */
+    public List<ProvisioningProfile> getProvisioningProfiles() {
+        return getSnapshot().provisioningProfiles;
+    }
+
+    /**
+     * Returns the signing identity matching the specified name or fingerprint.
+     * Reloads once if none matches since the identity may have been added
+     * since the last load.
+     */
+    public SigningIdentity findSigningIdentity(String search) {
+        try {
+            return SigningIdentity.find(getSigningIdentities(), search);
+        } catch (IllegalArgumentException e) {
+            return SigningIdentity.find(reload().signingIdentities, search);
+        }
+    }
+
+    /**
+     * Returns the provisioning profile matching the specified name or UUID.
+     * Reloads once if none matches since the profile may have been added since
+     * the last load.
+     */
+    public ProvisioningProfile findProvisioningProfile(String search) {
+        try {
+            return ProvisioningProfile.find(getProvisioningProfiles(), search);
+        } catch (IllegalArgumentException e) {
+            return ProvisioningProfile.find(reload().provisioningProfiles, search);
+        }
+    }
+
+    private Snapshot getSnapshot() {
+        Snapshot s = snapshot;
+        if (s == null) {
+            synchronized (loadLock) {
+                s = snapshot;
+                if (s == null) {
+                    s = load();
+                }
+            }
+        }
+        return s;
+    }
+
+    /**
+     * Loads the signing identities and provisioning profiles and replaces the
+     * current snapshot. If loading fails the current snapshot is kept.
+     */
+    private Snapshot reload() {
+        synchronized (loadLock) {
+            return load();
+        }
+    }
+
+    private Snapshot load() {
+        long start = System.nanoTime();
+        Snapshot s = new Snapshot(loader.listSigningIdentities(), loader.listProvisioningProfiles());
+        snapshot = s;
+        RoboVMPlugin.consoleDebug("Loaded %d signing identities and %d provisioning profiles in %d ms",
+                s.signingIdentities.size(), s.provisioningProfiles.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return s;
+    }
+}
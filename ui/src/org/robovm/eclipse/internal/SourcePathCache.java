@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2015 RoboVM AB
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package org.robovm.eclipse.internal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+
+/**
+ * Memoizes the source path graph of the Java projects in the workspace. The
+ * source paths and project dependencies of a project are resolved once and
+ * reused until JDT reports that the project's classpath has changed. The
+ * joined source path of a launched project is cached as well and dropped on
+ * any classpath change in the workspace.
+ */
+public class SourcePathCache implements ClasspathChangeListener.Listener,
+        SourcePaths.ProjectGraph<IJavaProject, CoreException> {
+
+    private static final SourcePathCache INSTANCE = new SourcePathCache();
+
+    private final Map<IJavaProject, List<SourcePaths.Entry<IJavaProject>>> entries = new ConcurrentHashMap<>();
+    private final Map<IJavaProject, List<String>> sourcePaths = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    private SourcePathCache() {
+    }
+
+    public static SourcePathCache getInstance() {
+        return INSTANCE;
+    }
+
+    public void start() {
+        ClasspathChangeListener.getInstance().addListener(this);
+    }
+
+    /**
+     * Returns the source paths of the specified project and the projects it
+     * depends on in classpath order.
+     */
+    public List<String> getSourcePaths(IJavaProject javaProject) throws CoreException {
+        List<String> result = sourcePaths.get(javaProject);
+        if (result == null) {
+            long gen = generation.get();
+            Set<String> paths = new LinkedHashSet<>();
+            SourcePaths.collect(this, javaProject, paths);
+            result = Collections.unmodifiableList(new ArrayList<>(paths));
+            put(sourcePaths, javaProject, result, gen);
+        }
+        return result;
+    }
+
+    @Override
+    public List<SourcePaths.Entry<IJavaProject>> getEntries(IJavaProject javaProject) throws CoreException {
+        List<SourcePaths.Entry<IJavaProject>> result = entries.get(javaProject);
+        if (result == null) {
+            long gen = generation.get();
+            result = Collections.unmodifiableList(resolveEntries(javaProject));
+            put(entries, javaProject, result, gen);
+        }
+        return result;
+    }
+
+    private static List<SourcePaths.Entry<IJavaProject>> resolveEntries(IJavaProject javaProject)
+            throws CoreException {
+
+        List<SourcePaths.Entry<IJavaProject>> entries = new ArrayList<>();
+        IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
+        for (IClasspathEntry entry : javaProject.getResolvedClasspath(true)) {
+            IPath path = null;
+            if (entry.getEntryKind() == IClasspathEntry.CPE_SOURCE) {
+                IResource resource = root.findMember(entry.getPath());
+                if (resource != null) {
+                    path = resource.getLocation();
+                }
+            } else if (entry.getEntryKind() == IClasspathEntry.CPE_LIBRARY) {
+                if (entry.getSourceAttachmentPath() != null) {
+                    path = entry.getSourceAttachmentPath();
+                }
+            } else if (entry.getEntryKind() == IClasspathEntry.CPE_PROJECT) {
+                IProject project = root.getProject(entry.getPath().toString());
+                if (project.isNatureEnabled("org.eclipse.jdt.core.javanature")) {
+                    entries.add(SourcePaths.Entry.project(JavaCore.create(project)));
+                }
+            }
+            if (path != null) {
+                entries.add(SourcePaths.Entry.<IJavaProject> path(path.toOSString()));
+            }
+        }
+        return entries;
+    }
+
+    @Override
+    public void classpathChanged(IJavaProject javaProject) {
+        generation.incrementAndGet();
+        entries.remove(javaProject);
+        // Any launched project may depend on this one
+        sourcePaths.clear();
+    }
+
+    /**
+     * Caches the specified value unless the cache has been invalidated since
+     * {@code gen} was read. Removes it again if an invalidation races with
+     * the put.
+     */
+    private <V> void put(Map<IJavaProject, V> map, IJavaProject key, V value, long gen) {
+        if (generation.get() == gen) {
+            map.put(key, value);
+            if (generation.get() != gen) {
+                map.remove(key, value);
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2015 RoboVM AB
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package org.robovm.eclipse.internal;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Collects the source paths of a project and the projects it depends on.
+ * The project structure is accessed through a {@link ProjectGraph} so that
+ * the walk can be benchmarked on synthetic graphs outside of Eclipse.
+ */
+public class SourcePaths {
+
+    private SourcePaths() {
+    }
+
+    /**
+     * Gives access to the classpath of the projects in a workspace.
+     *
+     * @param <P> the project type.
+     * @param <X> the exception thrown when a project's classpath cannot be
+     *            resolved.
+     */
+    public interface ProjectGraph<P, X extends Exception> {
+        /**
+         * Returns the classpath entries of the specified project in classpath
+         * order.
+         */
+        List<Entry<P>> getEntries(P project) throws X;
+    }
+
+    /**
+     * A classpath entry which is either a source path or a dependency on
+     * another project.
+     */
+    public static final class Entry<P> {
+        private final String path;
+        private final P project;
+
+        private Entry(String path, P project) {
+            this.path = path;
+            this.project = project;
+        }
+
+        public static <P> Entry<P> path(String path) {
+            return new Entry<P>(path, null);
+        }
+
+        public static <P> Entry<P> project(P project) {
+            return new Entry<P>(null, project);
+        }
+    }
+
+    /**
+     * Adds the source paths of {@code project} and the projects it depends on
+     * to {@code paths} in classpath order. Each project is visited once even if
+     * it is reachable through several paths or through a cycle.
+     */
+    public static <P, X extends Exception> void collect(ProjectGraph<P, X> graph, P project, Set<String> paths)
+            throws X {
+
+        collect(graph, project, paths, new HashSet<P>());
+    }
+
+    private static <P, X extends Exception> void collect(ProjectGraph<P, X> graph, P project, Set<String> paths,
+            Set<P> visited) throws X {
+
+        if (!visited.add(project)) {
+            return;
+        }
+        for (Entry<P> entry : graph.getEntries(project)) {
+            if (entry.project != null) {
+                collect(graph, entry.project, paths, visited);
+            } else {
+                paths.add(entry.path);
+            }
+        }
+    }
+
+    /**
+     * Joins the specified paths into the form expected by the debug plugin's
+     * {@code sourcepath} argument.
+     */
+    public static String join(Set<String> paths) {
+        StringBuilder builder = new StringBuilder();
+        for (String path : paths) {
+            builder.append(path);
+            builder.append(":");
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright (C) 2015 RoboVM AB
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package org.robovm.eclipse.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.robovm.eclipse.RoboVMPlugin;
+
+/**
+ * Reads the output of a launched app from a FIFO on a dedicated thread and
+ * hands it to the reader of this stream in large chunks. The pump thread reads
+ * into a large direct buffer so that the app is never blocked on a small pipe
+ * buffer while the console is busy. Up to {@link #MAX_BUFFERED} bytes are
+ * buffered before the pump stops reading.
+ * <p>
+ * The number of bytes pumped, the throughput and the time the pump had to wait
+ * for the reader to catch up are logged to the RoboVM console when the stream
+ * ends. A large wait time means that the console is slowing the app down.
+ */
+public class StreamPump extends InputStream {
+    /**
+     * Size of the direct buffer the FIFO is read into.
+     */
+    public static final int BUFFER_SIZE = Integer.getInteger("robovm.launch.pumpBufferSize", 256 * 1024);
+
+    /**
+     * Maximum number of bytes read from the FIFO but not yet consumed.
+     */
+    public static final int MAX_BUFFERED = Math.max(BUFFER_SIZE,
+            Integer.getInteger("robovm.launch.pumpMaxBuffered", 8 * 1024 * 1024));
+
+    private static final byte[] EOF = new byte[0];
+
+    private final String name;
+    private final File fifo;
+    private final LinkedBlockingQueue<byte[]> chunks = new LinkedBlockingQueue<>();
+    private final Semaphore space = new Semaphore(MAX_BUFFERED);
+    private final AtomicLong bytes = new AtomicLong();
+    private final AtomicLong stalledNanos = new AtomicLong();
+    private final Thread thread;
+    private volatile long startTime = -1;
+    private volatile long endTime = -1;
+    private volatile IOException error;
+    private volatile boolean closed = false;
+    private byte[] current;
+    private int pos;
+
+    public StreamPump(String name, File fifo) {
+        this.name = name;
+        this.fifo = fifo;
+        this.thread = new Thread("RoboVM " + name + " pump") {
+            @Override
+            public void run() {
+                pump();
+            }
+        };
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    private void pump() {
+        // Opening a FIFO for reading blocks until the app opens it for writing.
+        try (FileChannel channel = FileChannel.open(fifo.toPath(), StandardOpenOption.READ)) {
+            startTime = System.nanoTime();
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            while (!closed && channel.read(buffer) != -1) {
+                buffer.flip();
+                int n = buffer.remaining();
+                if (n == 0) {
+                    continue;
+                }
+                byte[] chunk = new byte[n];
+                buffer.get(chunk);
+                buffer.clear();
+                if (!space.tryAcquire(n)) {
+                    long start = System.nanoTime();
+                    space.acquire(n);
+                    stalledNanos.addAndGet(System.nanoTime() - start);
+                }
+                chunks.put(chunk);
+                bytes.addAndGet(n);
+            }
+        } catch (ClosedByInterruptException | InterruptedException e) {
+            // Closed
+        } catch (IOException e) {
+            error = e;
+        } finally {
+            endTime = System.nanoTime();
+            chunks.offer(EOF);
+            logStatistics();
+        }
+    }
+
+    private void logStatistics() {
+        if (startTime == -1) {
+            return;
+        }
+        long millis = TimeUnit.NANOSECONDS.toMillis(endTime - startTime);
+        long stalledMillis = TimeUnit.NANOSECONDS.toMillis(stalledNanos.get());
+        RoboVMPlugin.consoleDebug("%s: %d bytes in %d ms (%d KB/s), waited %d ms for the console",
+                name, bytes.get(), millis, getBytesPerSecond() / 1024, stalledMillis);
+    }
+
+    /**
+     * Returns the number of bytes read from the FIFO so far.
+     */
+    public long getBytes() {
+        return bytes.get();
+    }
+
+    /**
+     * Returns the average number of bytes per second read from the FIFO since
+     * the app opened it.
+     */
+    public long getBytesPerSecond() {
+        long start = startTime;
+        if (start == -1) {
+            return 0;
+        }
+        long end = endTime != -1 ? endTime : System.nanoTime();
+        long nanos = Math.max(1, end - start);
+        return bytes.get() * TimeUnit.SECONDS.toNanos(1) / nanos;
+    }
+
+    /**
+     * Returns the number of milliseconds the pump has been blocked waiting for
+     * the reader of this stream to consume buffered output.
+     */
+    public long getStalledMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(stalledNanos.get());
+    }
+
+    private boolean nextChunk() throws IOException {
+        if (current != null && pos < current.length) {
+            return true;
+        }
+        if (current != null) {
+            space.release(current.length);
+            current = null;
+        }
+        byte[] chunk;
+        try {
+            chunk = chunks.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+        if (chunk == EOF) {
+            // Leave EOF for subsequent reads
+            chunks.offer(EOF);
+            if (error != null) {
+                throw error;
+            }
+            return false;
+        }
+        current = chunk;
+        pos = 0;
+        return true;
+    }
+
+    @Override
+    public synchronized int read() throws IOException {
+        if (!nextChunk()) {
+            return -1;
+        }
+        return current[pos++] & 0xff;
+    }
+
+    @Override
+    public synchronized int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!nextChunk()) {
+            return -1;
+        }
+        int n = Math.min(len, current.length - pos);
+        System.arraycopy(current, pos, b, off, n);
+        pos += n;
+        return n;
+    }
+
+    @Override
+    public synchronized int available() throws IOException {
+        return current != null ? current.length - pos : 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            thread.interrupt();
+        }
+    }
+}
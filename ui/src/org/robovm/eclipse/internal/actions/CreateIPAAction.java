@@ -17,15 +17,20 @@
 package org.robovm.eclipse.internal.actions;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+import org.apache.commons.io.FileUtils;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.runtime.CoreException;
-import org.eclipse.core.runtime.IAdaptable;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
@@ -33,8 +38,6 @@ import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.JavaModelException;
-import org.eclipse.jdt.launching.IRuntimeClasspathEntry;
-import org.eclipse.jdt.launching.JavaRuntime;
 import org.eclipse.jface.action.IAction;
 import org.eclipse.jface.viewers.ISelection;
 import org.eclipse.jface.viewers.IStructuredSelection;
@@ -45,16 +48,20 @@ import org.robovm.compiler.AppCompiler;
 import org.robovm.compiler.config.Arch;
 import org.robovm.compiler.config.Config;
 import org.robovm.compiler.config.OS;
-import org.robovm.compiler.target.ios.ProvisioningProfile;
-import org.robovm.compiler.target.ios.SigningIdentity;
 import org.robovm.eclipse.RoboVMPlugin;
 import org.robovm.eclipse.internal.AppCompilerThread;
+import org.robovm.eclipse.internal.BuildCancellation;
+import org.robovm.eclipse.internal.BuildScheduler;
+import org.robovm.eclipse.internal.RuntimeClasspathResolver;
+import org.robovm.eclipse.internal.SigningCatalog;
 
 /**
  * 
  */
 public class CreateIPAAction implements IObjectActionDelegate {
 
+    private static final long SLICE_CANCEL_TIMEOUT = 3000;
+
     private ISelection selection;
     private CreateIPADialog dialog = null;
 
@@ -89,39 +96,49 @@ public class CreateIPAAction implements IObjectActionDelegate {
 
             @Override
             protected IStatus run(IProgressMonitor monitor) {
+                BuildScheduler.Ticket ticket = null;
                 try {
                     RoboVMPlugin.consoleInfo("Creating package in " + destDir + " ...");
                     if (monitor != null) {
                         monitor.beginTask("Package for App Store/Ad-Hoc distribution", 3);
                     }
 
-                    File projectRoot = project.getLocation().toFile();
-                    Config.Builder configBuilder = new Config.Builder();
-                    configBuilder.logger(RoboVMPlugin.getConsoleLogger());
-                    RoboVMPlugin.loadConfig(configBuilder, projectRoot, false);
-                    configBuilder.os(OS.ios);
-                    configBuilder.archs(archs);
-                    configBuilder.installDir(new File(destDir));
-                    configBuilder.iosSignIdentity(SigningIdentity.find(SigningIdentity.list(), signingIdentity));
-                    if (provisioningProfile != null) {
-                        configBuilder.iosProvisioningProfile(ProvisioningProfile.find(ProvisioningProfile.list(),
-                                provisioningProfile));
-                    }
-
                     IJavaProject javaProject = JavaCore.create(project);
-                    for (String entry : getClasspath(javaProject)) {
-                        configBuilder.addClasspathEntry(new File(entry));
+                    String[] classpath = RuntimeClasspathResolver.getInstance().getRuntimeClasspath(javaProject);
+                    ticket = BuildScheduler.getInstance().acquire(project.getName(),
+                            new File(RoboVMPlugin.getBuildDir(project.getName()), "ipa"), null, monitor);
+                    if (ticket == null) {
+                        RoboVMPlugin.consoleInfo("Build canceled");
+                        return Status.CANCEL_STATUS;
                     }
-                    //
-                    configBuilder.home(RoboVMPlugin.getRoboVMHome());
+                    BuildCancellation cancellation = new BuildCancellation();
+                    Config.Builder configBuilder = createConfigBuilder(project, classpath, signingIdentity,
+                            provisioningProfile, cancellation);
+                    configBuilder.archs(archs);
+                    configBuilder.threads(ticket.getThreads());
+                    configBuilder.installDir(new File(destDir));
                     Config config = configBuilder.build();
 
                     if (monitor != null) {
                         monitor.worked(1);
                     }
 
+                    if (archs.size() > 1) {
+                        if (monitor != null) {
+                            monitor.subTask("Compiling " + archs);
+                        }
+                        if (!compileSlices(project, classpath, signingIdentity, provisioningProfile, archs,
+                                ticket.getThreads(), cancellation, monitor)) {
+                            RoboVMPlugin.consoleInfo("Build canceled");
+                            return Status.CANCEL_STATUS;
+                        }
+                    }
+
+                    if (monitor != null) {
+                        monitor.subTask("Linking and packaging");
+                    }
                     AppCompiler compiler = new AppCompiler(config);
-                    AppCompilerThread thread = new AppCompilerThread(compiler, monitor) {
+                    AppCompilerThread thread = new AppCompilerThread(compiler, monitor, cancellation) {
                         protected void doCompile() throws Exception {
                             compiler.build();
                             compiler.archive();
@@ -148,6 +165,9 @@ public class CreateIPAAction implements IObjectActionDelegate {
                     return new Status(IStatus.ERROR, RoboVMPlugin.PLUGIN_ID,
                             "Packaging failed. Check the RoboVM console for more information.", e);
                 } finally {
+                    if (ticket != null) {
+                        ticket.release();
+                    }
                     if (monitor != null) {
                         monitor.done();
                     }
@@ -156,50 +176,114 @@ public class CreateIPAAction implements IObjectActionDelegate {
         }.schedule();
     }
 
-    private String[] getClasspath(IJavaProject project) throws CoreException {
-        Set<String> classpath = new HashSet<String>();
-        getClasspath(project, classpath);
-        return classpath.toArray(new String[classpath.size()]);
+    private Config.Builder createConfigBuilder(IProject project, String[] classpath, String signingIdentity,
+            String provisioningProfile, BuildCancellation cancellation) throws IOException {
+
+        File projectRoot = project.getLocation().toFile();
+        Config.Builder configBuilder = new Config.Builder();
+        configBuilder.logger(cancellation.wrap(RoboVMPlugin.getConsoleLogger()));
+        RoboVMPlugin.loadConfig(configBuilder, projectRoot, false);
+        configBuilder.os(OS.ios);
+        configBuilder.iosSignIdentity(SigningCatalog.getInstance().findSigningIdentity(signingIdentity));
+        if (provisioningProfile != null) {
+            configBuilder.iosProvisioningProfile(SigningCatalog.getInstance().findProvisioningProfile(
+                    provisioningProfile));
+        }
+        for (String entry : classpath) {
+            configBuilder.addClasspathEntry(new File(entry));
+        }
+        configBuilder.home(RoboVMPlugin.getRoboVMHome());
+        return configBuilder;
     }
 
     /**
-     * Recursively gathers all user classpath entries
+     * Compiles the classes of each architecture slice concurrently without
+     * linking. The compiled object files end up in the shared object cache so
+     * that the final multi-arch build which links, lipos and archives the
+     * slices only has to link.
+     * 
+     * @return {@code false} if the build was canceled.
      */
-    private void getClasspath(IJavaProject project, Set<String> classpath) throws CoreException {
-        IRuntimeClasspathEntry[] unresolvedEntries = JavaRuntime.computeUnresolvedRuntimeClasspath(project);
-        List<IRuntimeClasspathEntry> entries = new ArrayList<IRuntimeClasspathEntry>();
-        for (IRuntimeClasspathEntry entry : unresolvedEntries) {
-            entries.addAll(Arrays.asList(JavaRuntime.resolveRuntimeClasspathEntry(entry, project)));
-        }
+    private boolean compileSlices(IProject project, String[] classpath, String signingIdentity,
+            String provisioningProfile, List<Arch> archs, int cores, BuildCancellation cancellation,
+            IProgressMonitor monitor) throws Exception {
 
-        for (IRuntimeClasspathEntry entry : entries) {
-            if (entry.getClasspathProperty() == IRuntimeClasspathEntry.USER_CLASSES) {
-                IProject projectEntry = toProject(entry.getResource());
-                if (projectEntry != null) {
-                    IJavaProject projectDependency = JavaCore.create(projectEntry);
-                    if (!projectDependency.equals(project)) {
-                        getClasspath(projectDependency, classpath);
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(archs.size(), cores));
+        boolean completed = false;
+        try {
+            List<Future<?>> futures = new ArrayList<Future<?>>();
+            for (Arch arch : archs) {
+                Config.Builder configBuilder = createConfigBuilder(project, classpath, signingIdentity,
+                        provisioningProfile, cancellation);
+                configBuilder.arch(arch);
+                configBuilder.skipLinking(true);
+                // Share the available cores between the slices
+                configBuilder.threads(Math.max(1, cores / archs.size()));
+                File tmpDir = new File(new File(RoboVMPlugin.getBuildDir(project.getName()), "ipa"), arch.toString());
+                FileUtils.deleteDirectory(tmpDir);
+                tmpDir.mkdirs();
+                configBuilder.tmpDir(tmpDir);
+                final AppCompiler compiler = new AppCompiler(configBuilder.build());
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        compiler.build();
+                        return null;
+                    }
+                }));
+            }
+            for (Future<?> f : futures) {
+                while (true) {
+                    if (monitor != null && monitor.isCanceled()) {
+                        return false;
                     }
-                } else {
-                    String location = entry.getLocation();
-                    if (location != null) {
-                        classpath.add(location);
+                    try {
+                        f.get(100, TimeUnit.MILLISECONDS);
+                        break;
+                    } catch (TimeoutException e) {
+                    } catch (ExecutionException e) {
+                        if (e.getCause() instanceof Exception) {
+                            throw (Exception) e.getCause();
+                        }
+                        throw e;
                     }
                 }
             }
+            completed = true;
+            return true;
+        } finally {
+            if (!completed) {
+                // Canceled or one of the slices failed. Stop the other slices
+                // and don't return before they have stopped.
+                cancellation.cancel();
+                executor.shutdownNow();
+                awaitTermination(executor);
+            } else {
+                executor.shutdownNow();
+            }
         }
-
-        classpath.addAll(Arrays.asList(JavaRuntime.computeDefaultRuntimeClassPath(project)));
     }
 
-    private IProject toProject(Object o) {
-        if (o instanceof IProject) {
-            return (IProject) o;
+    private void awaitTermination(ExecutorService executor) {
+        boolean interrupted = false;
+        boolean warned = false;
+        while (true) {
+            try {
+                if (executor.awaitTermination(SLICE_CANCEL_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                    break;
+                }
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+            if (!warned) {
+                RoboVMPlugin.consoleWarn("Slices still running %d ms after the build was stopped",
+                        SLICE_CANCEL_TIMEOUT);
+                warned = true;
+            }
         }
-        if (o instanceof IAdaptable) {
-            return (IProject) ((IAdaptable) o).getAdapter(IProject.class);
+        if (interrupted) {
+            Thread.currentThread().interrupt();
         }
-        return null;
     }
 
     @Override
@@ -48,6 +48,7 @@ import org.robovm.compiler.config.Arch;
 import org.robovm.compiler.target.ios.ProvisioningProfile;
 import org.robovm.compiler.target.ios.SigningIdentity;
 import org.robovm.eclipse.RoboVMPlugin;
+import org.robovm.eclipse.internal.SigningCatalog;
 
 /**
  * 
@@ -145,7 +146,7 @@ public class CreateIPADialog extends TitleAreaDialog {
     
     @Override
     protected Control createDialogArea(Composite parent) {
-        provisioningProfiles = ProvisioningProfile.list();
+        provisioningProfiles = SigningCatalog.getInstance().getProvisioningProfiles();
         
         Composite area = (Composite) super.createDialogArea(parent);
         container = new Composite(area, SWT.NONE);
@@ -285,7 +286,7 @@ public class CreateIPADialog extends TitleAreaDialog {
     }
     
     private String[] readSigningIdentities() {
-        List<SigningIdentity> list = SigningIdentity.list();
+        List<SigningIdentity> list = SigningCatalog.getInstance().getSigningIdentities();
         String[] result = new String[list.size()];
         int i = 0;
         for (SigningIdentity sid : list) {
@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2015 RoboVM AB
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package org.robovm.eclipse.internal.actions;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IAdaptable;
+import org.eclipse.jface.action.IAction;
+import org.eclipse.jface.viewers.ISelection;
+import org.eclipse.jface.viewers.IStructuredSelection;
+import org.eclipse.ui.IObjectActionDelegate;
+import org.eclipse.ui.IWorkbenchPart;
+import org.robovm.eclipse.RoboVMPlugin;
+import org.robovm.eclipse.internal.RoboVMClassBuilder;
+
+/**
+ * Turns background precompilation by the {@link RoboVMClassBuilder} on or off
+ * for the selected project.
+ */
+public class TogglePrecompileAction implements IObjectActionDelegate {
+
+    private IProject project;
+
+    @Override
+    public void run(IAction action) {
+        if (project == null) {
+            return;
+        }
+        try {
+            RoboVMClassBuilder.setEnabled(project, action.isChecked());
+        } catch (CoreException e) {
+            RoboVMPlugin.log(e);
+        }
+    }
+
+    @Override
+    public void selectionChanged(IAction action, ISelection selection) {
+        project = null;
+        if (selection instanceof IStructuredSelection) {
+            Object o = ((IStructuredSelection) selection).getFirstElement();
+            if (o instanceof IProject) {
+                project = (IProject) o;
+            } else if (o instanceof IAdaptable) {
+                project = (IProject) ((IAdaptable) o).getAdapter(IProject.class);
+            }
+        }
+        try {
+            action.setChecked(project != null && project.isOpen() && RoboVMClassBuilder.isEnabled(project));
+        } catch (CoreException e) {
+            RoboVMPlugin.log(e);
+        }
+    }
+
+    @Override
+    public void setActivePart(IAction action, IWorkbenchPart targetPart) {
+    }
+
+}
@@ -51,7 +51,7 @@ public abstract class AbstractNewXcodeFileWizard extends Wizard implements INewW
     protected abstract String getPageDescription();
     protected abstract String getPageBanner();
     protected abstract String getPageName();
-    protected abstract void createFile(IProject project, String name, File path);
+    protected abstract void createFile(IBIntegratorProxy ib, String name, File path);
     
     @Override
     public void init(IWorkbench workbench, IStructuredSelection selection) {
@@ -75,20 +75,24 @@ public abstract class AbstractNewXcodeFileWizard extends Wizard implements INewW
             return false;
         }
 
-        IResource resource = ResourcesPlugin.getWorkspace().getRoot().findMember(containerPath);
+        final IResource resource = ResourcesPlugin.getWorkspace().getRoot().findMember(containerPath);
         IProject project = resource.getProject();
-        File path = resource.getLocation().toFile();
-        String name = page.getFileName();
-        if (FilenameUtils.isExtension(name, getExtension())) {
-            name = FilenameUtils.removeExtension(name);
-        }
-
-        createFile(project, name, path);
-        try {
-            resource.refreshLocal(IResource.DEPTH_ONE, null);
-        } catch (CoreException e) {
-            RoboVMPlugin.log(e);
+        final File path = resource.getLocation().toFile();
+        String fileName = page.getFileName();
+        if (FilenameUtils.isExtension(fileName, getExtension())) {
+            fileName = FilenameUtils.removeExtension(fileName);
         }
+        final String name = fileName;
+
+        // The daemon may have to be started first. Don't block the UI thread.
+        IBIntegratorManager.getInstance().runWithIBIntegrator(project, getTitle(),
+                new IBIntegratorManager.Callback() {
+                    @Override
+                    public void run(IBIntegratorProxy ib) throws CoreException {
+                        createFile(ib, name, path);
+                        resource.refreshLocal(IResource.DEPTH_ONE, null);
+                    }
+                });
 
         return true;
     }
@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2015 RoboVM AB
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package org.robovm.eclipse.internal.ib;
+
+import static java.lang.invoke.MethodType.methodType;
+
+import java.io.File;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.List;
+import java.util.Set;
+
+import org.robovm.compiler.config.Config.Home;
+import org.robovm.compiler.log.Logger;
+
+/**
+ * {@link MethodHandle}s for the methods of the Interface Builder integrator
+ * class, looked up once. The receiver of each handle has been erased to
+ * {@link Object} so that the handles can be invoked with
+ * {@link MethodHandle#invokeExact(Object...)} without a compile-time
+ * dependency on the integrator class.
+ */
+public class IBIntegratorHandles {
+    public final MethodHandle constructor;
+    public final MethodHandle setInfoPlist;
+    public final MethodHandle setResourceFolders;
+    public final MethodHandle setClasspath;
+    public final MethodHandle setSourceFolders;
+    public final MethodHandle newIOSStoryboard;
+    public final MethodHandle newIOSView;
+    public final MethodHandle newIOSViewController;
+    public final MethodHandle openProject;
+    public final MethodHandle openProjectFile;
+    public final MethodHandle start;
+    public final MethodHandle shutDown;
+
+    public IBIntegratorHandles(Class<?> cls) throws NoSuchMethodException, IllegalAccessException {
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        constructor = lookup.findConstructor(cls, methodType(void.class, Home.class, Logger.class, String.class, File.class))
+                .asType(methodType(Object.class, Home.class, Logger.class, String.class, File.class));
+        setInfoPlist = find(lookup, cls, "setInfoPlist", void.class, File.class);
+        setResourceFolders = find(lookup, cls, "setResourceFolders", void.class, Set.class);
+        setClasspath = find(lookup, cls, "setClasspath", void.class, List.class);
+        setSourceFolders = find(lookup, cls, "setSourceFolders", void.class, Set.class);
+        newIOSStoryboard = find(lookup, cls, "newIOSStoryboard", File.class, String.class, File.class);
+        newIOSView = find(lookup, cls, "newIOSView", File.class, String.class, File.class);
+        newIOSViewController = find(lookup, cls, "newIOSViewController", File.class, String.class, File.class);
+        openProject = find(lookup, cls, "openProject", void.class);
+        openProjectFile = find(lookup, cls, "openProjectFile", void.class, String.class);
+        start = find(lookup, cls, "start", void.class);
+        shutDown = find(lookup, cls, "shutDown", void.class);
+    }
+
+    private static MethodHandle find(MethodHandles.Lookup lookup, Class<?> cls, String name, Class<?> rtype,
+            Class<?>... ptypes) throws NoSuchMethodException, IllegalAccessException {
+
+        MethodType type = methodType(rtype, ptypes);
+        return lookup.findVirtual(cls, name, type).asType(type.insertParameterTypes(0, Object.class));
+    }
+}
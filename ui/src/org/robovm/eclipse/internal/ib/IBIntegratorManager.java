@@ -19,11 +19,11 @@ package org.robovm.eclipse.internal.ib;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
@@ -31,24 +31,66 @@ import org.eclipse.core.resources.IResourceChangeEvent;
 import org.eclipse.core.resources.IResourceChangeListener;
 import org.eclipse.core.resources.IResourceDelta;
 import org.eclipse.core.resources.IResourceDeltaVisitor;
-import org.eclipse.core.resources.IWorkspaceRoot;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jdt.core.IClasspathEntry;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.JavaModelException;
 import org.robovm.eclipse.RoboVMPlugin;
+import org.robovm.eclipse.internal.RuntimeClasspathResolver;
 
 /**
- * 
+ * Manages the Interface Builder integrator daemons of iOS projects. A
+ * project's daemon is started the first time it is requested through
+ * {@link #getIBIntegrator(IProject)} and is kept up to date with changes to the
+ * project until the project is closed or the daemon is evicted. Daemons of
+ * projects which haven't been requested or changed for {@link #IDLE_TIMEOUT}
+ * minutes are shut down, as is the least recently used daemon when more than
+ * {@link #MAX_DAEMONS} are running.
+ * An evicted daemon is started again the next time it is requested.
  */
 public class IBIntegratorManager implements IResourceChangeListener {
     private static boolean hasIBIntegrator;
     private static IBIntegratorManager instance;
 
-    private final Map<IProject, IBIntegratorProxy> daemons = new HashMap<IProject, IBIntegratorProxy>();
+    private final Map<IProject, IBIntegratorProxy> daemons = new ConcurrentHashMap<IProject, IBIntegratorProxy>();
+    private final Map<IProject, IBIntegratorState> pushedStates = new ConcurrentHashMap<IProject, IBIntegratorState>();
+    private final Map<IProject, Long> lastUsed = new ConcurrentHashMap<IProject, Long>();
+    private final AtomicInteger evictedCount = new AtomicInteger();
+    private volatile boolean started = false;
+
+    /**
+     * Number of minutes after which an unused daemon is shut down. 0 disables
+     * idle eviction.
+     */
+    private static final int IDLE_TIMEOUT = Integer.getInteger("robovm.ib.idleTimeout", 30);
+
+    /**
+     * Maximum number of daemons running at the same time. 0 means no limit.
+     */
+    private static final int MAX_DAEMONS = Integer.getInteger("robovm.ib.maxDaemons", 8);
+
+    private static final long EVICTION_INTERVAL = 60 * 1000;
+
+    private final Job evictionJob = new Job("RoboVM Interface Builder integrator eviction") {
+        @Override
+        protected IStatus run(IProgressMonitor monitor) {
+            evictIdleDaemons();
+            if (!daemons.isEmpty()) {
+                schedule(EVICTION_INTERVAL);
+            }
+            return Status.OK_STATUS;
+        }
+    };
+
+    private IBIntegratorManager() {
+        evictionJob.setSystem(true);
+    }
 
     static {
         try {
@@ -60,113 +102,238 @@ public class IBIntegratorManager implements IResourceChangeListener {
         }
     }
 
-    public static IBIntegratorManager getInstance() {
+    public static synchronized IBIntegratorManager getInstance() {
         if (instance == null) {
             instance = new IBIntegratorManager();
         }
         return instance;
     }
 
-    public IBIntegratorProxy getIBIntegrator(IProject project) {
-        return daemons.get(project);
+    /**
+     * Callback used by {@link IBIntegratorManager#runWithIBIntegrator}.
+     */
+    public interface Callback {
+        void run(IBIntegratorProxy ib) throws CoreException;
     }
 
-    public void start(IProgressMonitor monitor) throws CoreException {
-        if (!System.getProperty("os.name").toLowerCase().contains("mac os x")) {
-            return;
+    /**
+     * Returns the daemon of the specified project, starting it if it isn't
+     * running already. Returns {@code null} if the project isn't an iOS
+     * project or if the daemon cannot be started. Starting a daemon can take
+     * a while so this must not be called from the UI thread. Use
+     * {@link #runWithIBIntegrator(IProject, String, Callback)} there instead.
+     */
+    public IBIntegratorProxy getIBIntegrator(IProject project) {
+        if (!started) {
+            return null;
         }
-        if (!hasIBIntegrator) {
-            return;
+        lastUsed.put(project, System.currentTimeMillis());
+        IBIntegratorProxy proxy = daemons.get(project);
+        if (proxy != null) {
+            return proxy;
         }
-
-        // Needed to make IJavaProject.getResolvedClasspath() work properly.
-        JavaCore.initializeAfterLoad(monitor);
-
-        for (IProject p : ResourcesPlugin.getWorkspace().getRoot().getProjects()) {
-            if (p.isOpen()) {
+        synchronized (this) {
+            proxy = daemons.get(project);
+            if (proxy == null && project.isOpen()) {
                 try {
-                    projectChanged(p);
-                } catch (Throwable e) {
+                    proxy = startDaemon(project);
+                } catch (CoreException e) {
                     RoboVMPlugin.log(e);
                 }
+                if (proxy != null) {
+                    evictLeastRecentlyUsed(project);
+                    if (IDLE_TIMEOUT > 0) {
+                        evictionJob.schedule(EVICTION_INTERVAL);
+                    }
+                }
             }
+            return proxy;
         }
-        ResourcesPlugin.getWorkspace().addResourceChangeListener(this);
     }
 
-    private void projectChanged(IProject project) throws CoreException {
-        if (!RoboVMPlugin.isRoboVMIOSProject(project)) {
-            shutdownDaemonIfRunning(project);
+    /**
+     * Runs the specified callback in a {@link Job} once the daemon of the
+     * specified project is running. The callback isn't run if the daemon
+     * cannot be started.
+     */
+    public void runWithIBIntegrator(final IProject project, String jobName, final Callback callback) {
+        Job job = new Job(jobName) {
+            @Override
+            protected IStatus run(IProgressMonitor monitor) {
+                IBIntegratorProxy proxy = getIBIntegrator(project);
+                if (proxy == null) {
+                    RoboVMPlugin.consoleWarn("Interface Builder integrator is not available for project %s",
+                            project.getName());
+                    return Status.OK_STATUS;
+                }
+                try {
+                    callback.run(proxy);
+                } catch (CoreException e) {
+                    return e.getStatus();
+                }
+                return Status.OK_STATUS;
+            }
+        };
+        job.schedule();
+    }
+
+    /**
+     * Returns the number of daemons currently running.
+     */
+    public int getRunningCount() {
+        return daemons.size();
+    }
+
+    /**
+     * Returns the number of daemons which have been shut down because they
+     * were idle or because too many daemons were running.
+     */
+    public int getEvictedCount() {
+        return evictedCount.get();
+    }
+
+    private synchronized void evictIdleDaemons() {
+        if (IDLE_TIMEOUT <= 0) {
             return;
         }
+        long deadline = System.currentTimeMillis() - IDLE_TIMEOUT * 60 * 1000L;
+        for (IProject project : new ArrayList<>(daemons.keySet())) {
+            Long time = lastUsed.get(project);
+            if (time == null || time < deadline) {
+                evict(project, "idle for more than " + IDLE_TIMEOUT + " minutes");
+            }
+        }
+    }
 
-        String name = project.getName();
-        IBIntegratorProxy proxy = daemons.get(project);
-        if (proxy == null) {
-            try {
-                File dir = RoboVMPlugin.getBuildDir(name);
-                dir.mkdirs();
-                RoboVMPlugin.consoleDebug("Starting Interface Builder integrator daemon for project %s", name);
-                proxy = new IBIntegratorProxy(RoboVMPlugin.getRoboVMHome(), RoboVMPlugin.getConsoleLogger(), name, dir);
-                proxy.start();
-                daemons.put(project, proxy);
-            } catch (RuntimeException e) {
-                if (e.getClass().getSimpleName().equals("UnlicensedException")) {
-                    RoboVMPlugin.getConsoleLogger().warn("Failed to start Interface Builder "
-                            + "integrator for project " + name + ": " + e.getMessage());
-                } else {
-                    throw e;
+    /**
+     * Shuts down the least recently used daemons until no more than
+     * {@link #MAX_DAEMONS} are running. The daemon of the specified project is
+     * never shut down.
+     */
+    private void evictLeastRecentlyUsed(IProject keep) {
+        if (MAX_DAEMONS <= 0) {
+            return;
+        }
+        while (daemons.size() > MAX_DAEMONS) {
+            IProject lru = null;
+            long lruTime = Long.MAX_VALUE;
+            for (IProject project : daemons.keySet()) {
+                Long time = lastUsed.get(project);
+                long t = time != null ? time : 0;
+                if (!project.equals(keep) && t < lruTime) {
+                    lru = project;
+                    lruTime = t;
                 }
-            } catch (IOException e) {
-                throw new RuntimeException(e);
             }
+            if (lru == null) {
+                return;
+            }
+            evict(lru, "more than " + MAX_DAEMONS + " daemons running");
         }
+    }
 
+    private void evict(IProject project, String reason) {
+        IBIntegratorProxy proxy = daemons.remove(project);
+        pushedStates.remove(project);
+        lastUsed.remove(project);
         if (proxy != null) {
-            IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
-            IJavaProject javaProject = JavaCore.create(project);
+            int evicted = evictedCount.incrementAndGet();
+            RoboVMPlugin.consoleInfo("Shutting down Interface Builder integrator daemon for project %s (%s). "
+                    + "%d running, %d evicted", project.getName(), reason, daemons.size(), evicted);
+            proxy.shutDown();
+        }
+    }
 
-            File infoPlist = RoboVMPlugin.getRoboVMProjectInfoPlist(project);
-            if (infoPlist != null) {
-                proxy.setInfoPlist(infoPlist);
-            }
+    public void start(IProgressMonitor monitor) throws CoreException {
+        if (!System.getProperty("os.name").toLowerCase().contains("mac os x")) {
+            return;
+        }
+        if (!hasIBIntegrator) {
+            return;
+        }
 
-            List<File> classpath = new ArrayList<>(resolveClasspath(root, javaProject));
-            proxy.setClasspath(classpath);
+        // Daemons are started on first use.
+        ResourcesPlugin.getWorkspace().addResourceChangeListener(this);
+        started = true;
+    }
 
-            proxy.setSourceFolders(getOutputLocations(javaProject));
+    /**
+     * Starts the daemon of the specified project and pushes the project's
+     * current state to it. Must be called while holding the lock on this
+     * manager.
+     */
+    private IBIntegratorProxy startDaemon(IProject project) throws CoreException {
+        if (!RoboVMPlugin.isRoboVMIOSProject(project)) {
+            return null;
+        }
 
-            Set<File> resourcePaths = RoboVMPlugin.getRoboVMProjectResourcePaths(project);
-            proxy.setResourceFolders(resourcePaths);
+        String name = project.getName();
+        IBIntegratorProxy proxy = null;
+        try {
+            File dir = RoboVMPlugin.getBuildDir(name);
+            dir.mkdirs();
+            RoboVMPlugin.consoleDebug("Starting Interface Builder integrator daemon for project %s. "
+                    + "%d running, %d evicted", name, daemons.size(), evictedCount.get());
+            proxy = new IBIntegratorProxy(RoboVMPlugin.getRoboVMHome(), RoboVMPlugin.getConsoleLogger(), name, dir);
+            proxy.start();
+        } catch (RuntimeException e) {
+            if (e.getClass().getSimpleName().equals("UnlicensedException")) {
+                RoboVMPlugin.getConsoleLogger().warn("Failed to start Interface Builder "
+                        + "integrator for project " + name + ": " + e.getMessage());
+                return null;
+            } else {
+                throw e;
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
         }
-    }
 
-    private LinkedHashSet<File> resolveClasspath(IWorkspaceRoot root, IJavaProject javaProject)
-            throws JavaModelException {
+        daemons.put(project, proxy);
+        pushState(project, proxy);
+        return proxy;
+    }
 
-        LinkedHashSet<File> classpath = new LinkedHashSet<>();
-        for (IClasspathEntry cpe : javaProject.getResolvedClasspath(true)) {
-            if (cpe.getEntryKind() == IClasspathEntry.CPE_PROJECT) {
-                IJavaProject jproj = JavaCore.create(root.findMember(cpe.getPath()).getProject());
-                classpath.addAll(resolveClasspath(root, jproj));
-            } else if (cpe.getEntryKind() != IClasspathEntry.CPE_SOURCE && cpe.getPath() != null) {
-                File file = cpe.getPath().toFile();
-                if (!file.exists()) {
-                    // Probably a workspace absolute path. Resolve it.
-                    IResource res = root.findMember(cpe.getPath());
-                    if (res != null) {
-                        file = res.getLocation().toFile();
-                    }
-                }
-                if (file.exists()) {
-                    classpath.add(file);
-                }
-            }
+    private void projectChanged(IProject project) throws CoreException {
+        IBIntegratorProxy proxy = daemons.get(project);
+        if (proxy == null) {
+            // Not started yet. Will get the current state when started.
+            return;
+        }
+        if (!RoboVMPlugin.isRoboVMIOSProject(project)) {
+            shutdownDaemonIfRunning(project);
+            return;
         }
+        pushState(project, proxy);
+    }
+
+    private void pushState(IProject project, IBIntegratorProxy proxy) throws CoreException {
+        IJavaProject javaProject = JavaCore.create(project);
 
-        classpath.addAll(getOutputLocations(javaProject));
+        IBIntegratorState state = new IBIntegratorState(
+                RoboVMPlugin.getRoboVMProjectInfoPlist(project),
+                RuntimeClasspathResolver.getInstance().getBuildClasspath(javaProject),
+                getOutputLocations(javaProject),
+                new LinkedHashSet<>(RoboVMPlugin.getRoboVMProjectResourcePaths(project)));
+        pushState(project, proxy, state);
+    }
 
-        return classpath;
+    /**
+     * Pushes the fields of the specified state which have changed since the
+     * last successful push to the daemon. If the push fails the daemon will
+     * get all fields on the next push. A push counts as a use of the daemon
+     * so daemons of projects being worked on aren't considered idle.
+     */
+    private void pushState(IProject project, IBIntegratorProxy proxy, IBIntegratorState state) {
+        if (daemons.get(project) == proxy) {
+            lastUsed.put(project, System.currentTimeMillis());
+        }
+        IBIntegratorState previous = pushedStates.remove(project);
+        List<String> pushed = proxy.update(previous, state);
+        pushedStates.put(project, state);
+        if (!pushed.isEmpty()) {
+            RoboVMPlugin.consoleDebug("Updated %s of Interface Builder integrator for project %s",
+                    pushed, project.getName());
+        }
     }
 
     private LinkedHashSet<File> getOutputLocations(IJavaProject javaProject)
@@ -196,6 +363,8 @@ public class IBIntegratorManager implements IResourceChangeListener {
     private void shutdownDaemonIfRunning(IProject project) {
         String name = project.getName();
         IBIntegratorProxy proxy = daemons.remove(project);
+        pushedStates.remove(project);
+        lastUsed.remove(project);
         if (proxy != null) {
             RoboVMPlugin.consoleDebug("Shutting down Interface Builder integrator daemon for project %s", name);
             proxy.shutDown();
@@ -217,11 +386,12 @@ public class IBIntegratorManager implements IResourceChangeListener {
                         IProject project = (IProject) resource;
 
                         if (project.isOpen()) {
-                            if ((delta.getFlags() & IResourceDelta.OPEN) != 0 || !daemons.containsKey(project)) {
-                                // Could be a RoboVM project that just opened.
-                                projectChanged(project);
+                            if (!daemons.containsKey(project)) {
+                                // Daemons are started on first use
                                 return false;
                             }
+                            // Changes to the project count as a use of its daemon
+                            lastUsed.put(project, System.currentTimeMillis());
                         } else {
                             // Project was closed. Stop the daemon.
                             shutdownDaemonIfRunning(project);
@@ -17,7 +17,7 @@
 package org.robovm.eclipse.internal.ib;
 
 import java.io.File;
-import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 
@@ -29,6 +29,7 @@ import org.robovm.compiler.log.Logger;
  */
 public class IBIntegratorProxy {
     private static Class<?> ibintegratorClass;
+    private static IBIntegratorHandles handles;
     private final Object instance;
 
     static Class<?> getIBIntegratorClass() {
@@ -43,14 +44,20 @@ public class IBIntegratorProxy {
         return ibintegratorClass;
     }
 
-    public IBIntegratorProxy(Home home, Logger logger, String projectName, File target) {
-        try {
+    private static synchronized IBIntegratorHandles getHandles() {
+        if (handles == null) {
             try {
-                instance = getIBIntegratorClass().getConstructor(Home.class, Logger.class, String.class, File.class)
-                        .newInstance(home, logger, projectName, target);
-            } catch (InvocationTargetException e) {
-                throw e.getCause() != null ? e.getCause() : e;
+                handles = new IBIntegratorHandles(getIBIntegratorClass());
+            } catch (NoSuchMethodException | IllegalAccessException e) {
+                throw new Error(e);
             }
+        }
+        return handles;
+    }
+
+    public IBIntegratorProxy(Home home, Logger logger, String projectName, File target) {
+        try {
+            instance = (Object) getHandles().constructor.invokeExact(home, logger, projectName, target);
         } catch (Error | RuntimeException e) {
             throw e;
         } catch (Throwable t) {
@@ -60,11 +67,7 @@ public class IBIntegratorProxy {
 
     public void setInfoPlist(final File file) {
         try {
-            try {
-                getIBIntegratorClass().getMethod("setInfoPlist", File.class).invoke(instance, file);
-            } catch (InvocationTargetException e) {
-                throw e.getCause() != null ? e.getCause() : e;
-            }
+            getHandles().setInfoPlist.invokeExact(instance, file);
         } catch (Error | RuntimeException e) {
             throw e;
         } catch (Throwable t) {
@@ -74,11 +77,7 @@ public class IBIntegratorProxy {
 
     public void setResourceFolders(Set<File> resourceFolders) {
         try {
-            try {
-                getIBIntegratorClass().getMethod("setResourceFolders", Set.class).invoke(instance, resourceFolders);
-            } catch (InvocationTargetException e) {
-                throw e.getCause() != null ? e.getCause() : e;
-            }
+            getHandles().setResourceFolders.invokeExact(instance, resourceFolders);
         } catch (Error | RuntimeException e) {
             throw e;
         } catch (Throwable t) {
@@ -88,11 +87,7 @@ public class IBIntegratorProxy {
 
     public void setClasspath(List<File> classpath) {
         try {
-            try {
-                getIBIntegratorClass().getMethod("setClasspath", List.class).invoke(instance, classpath);
-            } catch (InvocationTargetException e) {
-                throw e.getCause() != null ? e.getCause() : e;
-            }
+            getHandles().setClasspath.invokeExact(instance, classpath);
         } catch (Error | RuntimeException e) {
             throw e;
         } catch (Throwable t) {
@@ -102,11 +97,7 @@ public class IBIntegratorProxy {
 
     public void setSourceFolders(Set<File> sourceFolders) {
         try {
-            try {
-                getIBIntegratorClass().getMethod("setSourceFolders", Set.class).invoke(instance, sourceFolders);
-            } catch (InvocationTargetException e) {
-                throw e.getCause() != null ? e.getCause() : e;
-            }
+            getHandles().setSourceFolders.invokeExact(instance, sourceFolders);
         } catch (Error | RuntimeException e) {
             throw e;
         } catch (Throwable t) {
@@ -114,14 +105,35 @@ public class IBIntegratorProxy {
         }
     }
 
+    /**
+     * Pushes the fields of {@code state} which differ from {@code previous} to
+     * the daemon. Pushes all fields if {@code previous} is {@code null}.
+     * Returns the names of the pushed fields.
+     */
+    List<String> update(IBIntegratorState previous, IBIntegratorState state) {
+        List<String> pushed = new ArrayList<>();
+        if (state.infoPlistChanged(previous)) {
+            setInfoPlist(state.getInfoPlist());
+            pushed.add("Info.plist");
+        }
+        if (state.classpathChanged(previous)) {
+            setClasspath(state.getClasspath());
+            pushed.add("classpath");
+        }
+        if (state.sourceFoldersChanged(previous)) {
+            setSourceFolders(state.getSourceFolders());
+            pushed.add("source folders");
+        }
+        if (state.resourceFoldersChanged(previous)) {
+            setResourceFolders(state.getResourceFolders());
+            pushed.add("resource folders");
+        }
+        return pushed;
+    }
+
     public File newIOSStoryboard(String name, File path) {
         try {
-            try {
-                return (File) getIBIntegratorClass().getMethod("newIOSStoryboard", String.class, File.class)
-                        .invoke(instance, name, path);
-            } catch (InvocationTargetException e) {
-                throw e.getCause() != null ? e.getCause() : e;
-            }
+            return (File) getHandles().newIOSStoryboard.invokeExact(instance, name, path);
         } catch (Error | RuntimeException e) {
             throw e;
         } catch (Throwable t) {
@@ -131,12 +143,7 @@ public class IBIntegratorProxy {
 
     public File newIOSView(String name, File path) {
         try {
-            try {
-                return (File) getIBIntegratorClass().getMethod("newIOSView", String.class, File.class)
-                        .invoke(instance, name, path);
-            } catch (InvocationTargetException e) {
-                throw e.getCause() != null ? e.getCause() : e;
-            }
+            return (File) getHandles().newIOSView.invokeExact(instance, name, path);
         } catch (Error | RuntimeException e) {
             throw e;
         } catch (Throwable t) {
@@ -146,12 +153,7 @@ public class IBIntegratorProxy {
 
     public File newIOSViewController(String name, File path) {
         try {
-            try {
-                return (File) getIBIntegratorClass().getMethod("newIOSViewController", String.class, File.class)
-                        .invoke(instance, name, path);
-            } catch (InvocationTargetException e) {
-                throw e.getCause() != null ? e.getCause() : e;
-            }
+            return (File) getHandles().newIOSViewController.invokeExact(instance, name, path);
         } catch (Error | RuntimeException e) {
             throw e;
         } catch (Throwable t) {
@@ -161,11 +163,7 @@ public class IBIntegratorProxy {
 
     public void openProject() {
         try {
-            try {
-                getIBIntegratorClass().getMethod("openProject").invoke(instance);
-            } catch (InvocationTargetException e) {
-                throw e.getCause() != null ? e.getCause() : e;
-            }
+            getHandles().openProject.invokeExact(instance);
         } catch (Error | RuntimeException e) {
             throw e;
         } catch (Throwable t) {
@@ -175,12 +173,7 @@ public class IBIntegratorProxy {
 
     public void openProjectFile(String file) {
         try {
-            try {
-                getIBIntegratorClass().getMethod("openProjectFile", String.class)
-                        .invoke(instance, file);
-            } catch (InvocationTargetException e) {
-                throw e.getCause() != null ? e.getCause() : e;
-            }
+            getHandles().openProjectFile.invokeExact(instance, file);
         } catch (Error | RuntimeException e) {
             throw e;
         } catch (Throwable t) {
@@ -190,11 +183,7 @@ public class IBIntegratorProxy {
 
     public void start() {
         try {
-            try {
-                getIBIntegratorClass().getMethod("start").invoke(instance);
-            } catch (InvocationTargetException e) {
-                throw e.getCause() != null ? e.getCause() : e;
-            }
+            getHandles().start.invokeExact(instance);
         } catch (Error | RuntimeException e) {
             throw e;
         } catch (Throwable t) {
@@ -204,11 +193,7 @@ public class IBIntegratorProxy {
 
     public void shutDown() {
         try {
-            try {
-                getIBIntegratorClass().getMethod("shutDown").invoke(instance);
-            } catch (InvocationTargetException e) {
-                throw e.getCause() != null ? e.getCause() : e;
-            }
+            getHandles().shutDown.invokeExact(instance);
         } catch (Error | RuntimeException e) {
             throw e;
         } catch (Throwable t) {
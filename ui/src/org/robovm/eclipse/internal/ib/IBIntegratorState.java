@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2015 RoboVM AB
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package org.robovm.eclipse.internal.ib;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The project state pushed to an Interface Builder integrator daemon. Used by
+ * {@link IBIntegratorManager} to only push the fields which have changed since
+ * the last push.
+ */
+class IBIntegratorState {
+    private final File infoPlist;
+    private final List<File> classpath;
+    private final Set<File> sourceFolders;
+    private final Set<File> resourceFolders;
+
+    IBIntegratorState(File infoPlist, List<File> classpath, Set<File> sourceFolders, Set<File> resourceFolders) {
+        this.infoPlist = infoPlist;
+        this.classpath = Collections.unmodifiableList(classpath);
+        this.sourceFolders = Collections.unmodifiableSet(sourceFolders);
+        this.resourceFolders = Collections.unmodifiableSet(resourceFolders);
+    }
+
+    File getInfoPlist() {
+        return infoPlist;
+    }
+
+    List<File> getClasspath() {
+        return classpath;
+    }
+
+    Set<File> getSourceFolders() {
+        return sourceFolders;
+    }
+
+    Set<File> getResourceFolders() {
+        return resourceFolders;
+    }
+
+    boolean infoPlistChanged(IBIntegratorState previous) {
+        // A missing Info.plist is never pushed
+        return infoPlist != null && (previous == null || !infoPlist.equals(previous.infoPlist));
+    }
+
+    boolean classpathChanged(IBIntegratorState previous) {
+        return previous == null || !classpath.equals(previous.classpath);
+    }
+
+    boolean sourceFoldersChanged(IBIntegratorState previous) {
+        return previous == null || !sourceFolders.equals(previous.sourceFolders);
+    }
+
+    boolean resourceFoldersChanged(IBIntegratorState previous) {
+        return previous == null || !resourceFolders.equals(previous.resourceFolders);
+    }
+}
@@ -18,7 +18,6 @@ package org.robovm.eclipse.internal.ib;
 
 import java.io.File;
 
-import org.eclipse.core.resources.IProject;
 import org.robovm.eclipse.RoboVMPlugin;
 
 /**
@@ -57,7 +56,7 @@ public class NewStoryboardWizard extends AbstractNewXcodeFileWizard {
     }
 
     @Override
-    protected void createFile(IProject project, String name, File path) {
-        IBIntegratorManager.getInstance().getIBIntegrator(project).newIOSStoryboard(name, path);
+    protected void createFile(IBIntegratorProxy ib, String name, File path) {
+        ib.newIOSStoryboard(name, path);
     }
 }
@@ -39,10 +39,13 @@ public class OpenXcodeAction implements IObjectActionDelegate {
         for (Object o : ((IStructuredSelection) selection).toList()) {
             IProject project = toProject(o);
             if (project != null) {
-                IBIntegratorProxy ib = IBIntegratorManager.getInstance().getIBIntegrator(project);
-                if (ib != null) {
-                    ib.openProject();
-                }
+                IBIntegratorManager.getInstance().runWithIBIntegrator(project, "Opening Xcode project",
+                        new IBIntegratorManager.Callback() {
+                            @Override
+                            public void run(IBIntegratorProxy ib) {
+                                ib.openProject();
+                            }
+                        });
             }
         }
     }
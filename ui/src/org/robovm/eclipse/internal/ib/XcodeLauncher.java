@@ -30,16 +30,19 @@ import org.robovm.eclipse.RoboVMPlugin;
 public class XcodeLauncher implements IEditorLauncher {
 
     @Override
-    public void open(IPath file) {
+    public void open(final IPath file) {
         try {
             IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
             for (IProject project : root.getProjects()) {
                 if (project.isOpen() && RoboVMPlugin.isRoboVMIOSProject(project)) {
                     if (project.getLocation().isPrefixOf(file)) {
-                        IBIntegratorProxy ib = IBIntegratorManager.getInstance().getIBIntegrator(project);
-                        if (ib != null) {
-                            ib.openProjectFile(file.toString());
-                        }
+                        IBIntegratorManager.getInstance().runWithIBIntegrator(project, "Opening file in Xcode",
+                                new IBIntegratorManager.Callback() {
+                                    @Override
+                                    public void run(IBIntegratorProxy ib) {
+                                        ib.openProjectFile(file.toString());
+                                    }
+                                });
                     }
                 }
             }
@@ -18,11 +18,8 @@ package org.robovm.eclipse.internal.junit;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.List;
 
-import org.apache.commons.io.FileUtils;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
@@ -42,6 +39,7 @@ import org.eclipse.jdt.launching.VMRunnerConfiguration;
 import org.robovm.compiler.config.Config.Builder;
 import org.robovm.eclipse.RoboVMPlugin;
 import org.robovm.eclipse.internal.AbstractLaunchConfigurationDelegate;
+import org.robovm.eclipse.internal.BuildManifest;
 
 /**
  */
@@ -83,46 +81,15 @@ public abstract class AbstractJUnitLaunchConfigurationDelegate extends AbstractL
         jUnitLauncher.launch(configuration, mode, launch, monitor);
     }
     
-    /**
-     * Extracts the test class names from the RemoteTestRunner arguments. Also
-     * converts -testnamefile arguments to -classNames since the file with the
-     * test names will not be available if we launch on a device.
-     */
-    @SuppressWarnings("unchecked")
     private void processArgs(String[] args) throws CoreException {
-        List<String> classes = new ArrayList<>();
-        List<String> modifiedArgs = new ArrayList<>();
-        for (int i = 0; i < args.length; i++) {
-            String arg = args[i].toLowerCase();
-            if ("-test".equals(arg)) {
-                // -test <class>:<method>
-                String v = args[++i];
-                classes.add(v.substring(0, v.indexOf(':')));
-                modifiedArgs.add("-test");
-                modifiedArgs.add(v);
-            } else if ("-classnames".equals(arg) || "-classname".equals(arg)) {
-                // -classnames <class1> <class2> ...
-                i++;
-                while (i < args.length && args[i].charAt(0) != '-') {
-                    classes.add(args[i++]);
-                }
-                modifiedArgs.add("-classNames");
-                modifiedArgs.addAll(classes);
-            } else if ("-testnamefile".equals(arg)) {
-                try {
-                    classes.addAll((List<String>) FileUtils.readLines(new File(args[++i])));
-                } catch (IOException e) {
-                    throw new CoreException(new Status(IStatus.ERROR, RoboVMPlugin.PLUGIN_ID, "", e));
-                }
-                // Convert to -classNames <class1> <class2> ...
-                modifiedArgs.add("-classNames");
-                modifiedArgs.addAll(classes);
-            } else {
-                modifiedArgs.add(args[i]);
-            }
+        JUnitArguments processed;
+        try {
+            processed = JUnitArguments.process(args);
+        } catch (IOException e) {
+            throw new CoreException(new Status(IStatus.ERROR, RoboVMPlugin.PLUGIN_ID, "", e));
         }
-        this.runnerProgramArgs = modifiedArgs.toArray(new String[modifiedArgs.size()]);
-        this.testClasses = classes.toArray(new String[classes.size()]);
+        this.runnerProgramArgs = processed.getRunnerProgramArgs();
+        this.testClasses = processed.getTestClasses();
     }
     
     private void superLaunch(ILaunchConfiguration configuration, String mode, ILaunch launch, IProgressMonitor monitor)
@@ -180,6 +147,13 @@ public abstract class AbstractJUnitLaunchConfigurationDelegate extends AbstractL
         return true;
     }
 
+    @Override
+    protected void addBuildInputs(BuildManifest manifest, ILaunchConfiguration configuration, String mode)
+            throws CoreException {
+
+        manifest.put(BuildManifest.FORCE_LINK_CLASSES, testClasses);
+    }
+
     @Override
     protected Builder configure(Builder configBuilder, ILaunchConfiguration configuration, String mode)
             throws IOException, CoreException {
@@ -17,8 +17,8 @@
 package org.robovm.eclipse.internal.junit;
 
 import org.eclipse.debug.core.ILaunchConfigurationWorkingCopy;
-import org.robovm.compiler.target.ios.DeviceType;
 import org.robovm.compiler.target.ios.DeviceType.DeviceFamily;
+import org.robovm.eclipse.internal.DeviceTypeCatalog;
 
 /**
  *
@@ -33,6 +33,6 @@ public class IOSSimulatorJUnitLaunchShortcut extends AbstractJUnitLaunchShortcut
     @Override
     protected void customizeConfiguration(ILaunchConfigurationWorkingCopy wc) {
         wc.setAttribute(IOSSimulatorJUnitLaunchConfigurationDelegate.ATTR_IOS_SIM_DEVICE_TYPE,
-                DeviceType.getBestDeviceType(DeviceFamily.iPhone).getSimpleDeviceTypeId());
+                DeviceTypeCatalog.getInstance().getBestDeviceType(DeviceFamily.iPhone).getSimpleDeviceTypeId());
     }
 }
@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2015 RoboVM AB
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package org.robovm.eclipse.internal.junit;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+
+/**
+ * The RemoteTestRunner arguments of a JUnit launch with the test classes
+ * extracted. Kept free of Eclipse dependencies so that it can be benchmarked
+ * outside of Eclipse.
+ */
+public class JUnitArguments {
+    private final String[] runnerProgramArgs;
+    private final String[] testClasses;
+
+    private JUnitArguments(String[] runnerProgramArgs, String[] testClasses) {
+        this.runnerProgramArgs = runnerProgramArgs;
+        this.testClasses = testClasses;
+    }
+
+    public String[] getRunnerProgramArgs() {
+        return runnerProgramArgs;
+    }
+
+    public String[] getTestClasses() {
+        return testClasses;
+    }
+
+    /**
+     * Extracts the test class names from the RemoteTestRunner arguments. Also
+     * converts -testnamefile arguments to -classNames since the file with the
+     * test names will not be available if we launch on a device.
+     */
+    @SuppressWarnings("unchecked")
+    public static JUnitArguments process(String[] args) throws IOException {
+        List<String> classes = new ArrayList<>();
+        List<String> modifiedArgs = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i].toLowerCase();
+            if ("-test".equals(arg)) {
+                // -test <class>:<method>
+                String v = args[++i];
+                classes.add(v.substring(0, v.indexOf(':')));
+                modifiedArgs.add("-test");
+                modifiedArgs.add(v);
+            } else if ("-classnames".equals(arg) || "-classname".equals(arg)) {
+                // -classnames <class1> <class2> ...
+                i++;
+                while (i < args.length && args[i].charAt(0) != '-') {
+                    classes.add(args[i++]);
+                }
+                modifiedArgs.add("-classNames");
+                modifiedArgs.addAll(classes);
+            } else if ("-testnamefile".equals(arg)) {
+                classes.addAll((List<String>) FileUtils.readLines(new File(args[++i])));
+                // Convert to -classNames <class1> <class2> ...
+                modifiedArgs.add("-classNames");
+                modifiedArgs.addAll(classes);
+            } else {
+                modifiedArgs.add(args[i]);
+            }
+        }
+        return new JUnitArguments(modifiedArgs.toArray(new String[modifiedArgs.size()]),
+                classes.toArray(new String[classes.size()]));
+    }
+}